@@ -0,0 +1,80 @@
+package com.yushan.user_service.benchmark;
+
+import com.yushan.user_service.entity.User;
+import com.yushan.user_service.security.FilterRejectionWriter;
+import com.yushan.user_service.security.GatewayReplayCache;
+import com.yushan.user_service.security.GatewaySignatureVerifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.yushan.user_service.util.JwtUtil;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Shared setup for the security benchmarks
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "benchmark-secret-key-for-jmh-runs-1234567890";
+    static final String HMAC_SECRET = "benchmark-gateway-hmac-secret";
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user(boolean isAdmin, boolean isAuthor) {
+        Date now = new Date();
+        return new User(UUID.randomUUID(), "bench-" + UUID.randomUUID() + "@example.com", "bench-user",
+                "$2a$10$abcdefghijklmnopqrstuuabcdefghijklmnopqrstuvwxyz01234",
+                null, null, null, 0, 0, isAuthor, isAdmin, now, now, now, now);
+    }
+
+    static JwtUtil jwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "accessTokenExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshTokenExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtil, "issuer", "yushan-benchmark");
+        ReflectionTestUtils.setField(jwtUtil, "algorithm", "HS256");
+        return jwtUtil;
+    }
+
+    static GatewaySignatureVerifier signatureVerifier() {
+        GatewaySignatureVerifier verifier = new GatewaySignatureVerifier();
+        ReflectionTestUtils.setField(verifier, "environment",
+                new MockEnvironment().withProperty("gateway.hmac.secret", HMAC_SECRET));
+        verifier.init();
+        return verifier;
+    }
+
+    static GatewayReplayCache replayCache() {
+        GatewayReplayCache replayCache = new GatewayReplayCache();
+        ReflectionTestUtils.setField(replayCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(replayCache, "maxEntriesPerMinute", 2_000_000);
+        replayCache.init();
+        return replayCache;
+    }
+
+    static FilterRejectionWriter rejectionWriter() {
+        FilterRejectionWriter rejectionWriter = new FilterRejectionWriter();
+        ReflectionTestUtils.setField(rejectionWriter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(rejectionWriter, "logIntervalMs", 1000L);
+        rejectionWriter.init();
+        return rejectionWriter;
+    }
+
+    /**
+     * Sign gateway headers the same way the API Gateway does: userId|email|role|timestamp
+     */
+    static String gatewaySignature(String userId, String email, String role, long timestamp) throws Exception {
+        String message = userId + "|" + email + "|" + role + "|" + timestamp;
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(HMAC_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,99 @@
+package com.yushan.user_service.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.event.codec.UserActivityEventCodec;
+import com.yushan.user_service.event.dto.EventEnvelope;
+import com.yushan.user_service.event.dto.UserActivityEvent;
+import com.yushan.user_service.event.dto.UserLoggedInEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Activity event encode/decode cost: Spring's JsonSerializer (with type headers)
+ * versus the binary UserActivityEventCodec, plus the user.events envelope built
+ * through a JsonNode tree versus written directly.
+ *
+ * Encoded sizes are not reported here; UserActivityEventCodecTest asserts the
+ * binary form stays well under half the JSON size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventCodecBenchmark {
+
+    private static final String TOPIC = "active";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final UserActivityEventCodec binaryCodec = new UserActivityEventCodec(objectMapper);
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+
+    private UserActivityEvent activityEvent;
+    private UserLoggedInEvent loggedInEvent;
+    private byte[] activityJson;
+    private byte[] activityBinary;
+
+    @Setup
+    public void setUp() throws Exception {
+        activityEvent = new UserActivityEvent(UUID.randomUUID(), "content-service",
+                "/api/v1/novels/42/chapters/7", "GET", LocalDateTime.now());
+        Date now = new Date();
+        loggedInEvent = new UserLoggedInEvent(UUID.randomUUID(), "reader", "reader@example.com",
+                now, now, now, now);
+
+        activityJson = jsonSerializer.serialize(TOPIC, new RecordHeaders(), activityEvent);
+        activityBinary = binaryCodec.encode(activityEvent);
+    }
+
+    @Benchmark
+    public byte[] activityJsonEncode() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), activityEvent);
+    }
+
+    @Benchmark
+    public byte[] activityBinaryEncode() {
+        return binaryCodec.encode(activityEvent);
+    }
+
+    @Benchmark
+    public UserActivityEvent activityJsonDecode() throws Exception {
+        return objectMapper.readValue(activityJson, UserActivityEvent.class);
+    }
+
+    @Benchmark
+    public UserActivityEvent activityBinaryDecode() {
+        return binaryCodec.decode(activityBinary);
+    }
+
+    // previous UserEventProducer path: payload -> tree -> envelope -> bytes
+    @Benchmark
+    public byte[] envelopeViaTree() throws Exception {
+        JsonNode payload = objectMapper.valueToTree(loggedInEvent);
+        return objectMapper.writeValueAsBytes(EventEnvelope.of("UserLoggedInEvent", payload));
+    }
+
+    @Benchmark
+    public byte[] envelopeDirect() throws Exception {
+        return objectMapper.writeValueAsBytes(EventEnvelope.of("UserLoggedInEvent", loggedInEvent));
+    }
+}
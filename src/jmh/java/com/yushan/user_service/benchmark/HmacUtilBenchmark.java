@@ -0,0 +1,60 @@
+package com.yushan.user_service.benchmark;
+
+import com.yushan.user_service.security.GatewaySignatureVerifier;
+import com.yushan.user_service.util.HmacUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gateway signature verification cost per request:
+ * the original static HmacUtil path versus the cached-Mac verifier
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HmacUtilBenchmark {
+
+    private final String userId = UUID.randomUUID().toString();
+    private final String email = "bench@example.com";
+    private final String role = "USER";
+    private long timestamp;
+    private String signature;
+    private GatewaySignatureVerifier verifier;
+
+    @Setup
+    public void createVerifier() {
+        verifier = BenchmarkFixtures.signatureVerifier();
+    }
+
+    // re-sign each iteration so the timestamp stays inside the replay window
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        timestamp = System.currentTimeMillis();
+        signature = BenchmarkFixtures.gatewaySignature(userId, email, role, timestamp);
+    }
+
+    @Benchmark
+    public boolean verifySignature() {
+        return HmacUtil.verifySignature(userId, email, role, timestamp, signature, BenchmarkFixtures.HMAC_SECRET);
+    }
+
+    @Benchmark
+    public boolean gatewaySignatureVerifier() {
+        return verifier.verify(userId, email, role, timestamp, signature);
+    }
+}
@@ -0,0 +1,229 @@
+package com.yushan.user_service.benchmark;
+
+import com.yushan.user_service.dto.AdminUserFilterDTO;
+import com.yushan.user_service.dto.UserCursor;
+import com.yushan.user_service.entity.Library;
+import com.yushan.user_service.entity.NovelLibrary;
+import com.yushan.user_service.entity.User;
+import com.yushan.user_service.entity.UserStatusChange;
+import com.yushan.user_service.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map-backed UserRepository for benchmarks, so the security filters can be
+ * measured without a database. Only the user lookups on the request path are
+ * supported; everything else fails loudly.
+ */
+public class InMemoryUserRepository implements UserRepository {
+
+    private final Map<UUID, User> usersById = new ConcurrentHashMap<>();
+
+    private final Map<String, User> usersByEmail = new ConcurrentHashMap<>();
+
+    @Override
+    public User findById(UUID uuid) {
+        return usersById.get(uuid);
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        return usersByEmail.get(email);
+    }
+
+    @Override
+    public User findByEmailForUpdate(String email) {
+        return findByEmail(email);
+    }
+
+    @Override
+    public User insert(User user) {
+        return save(user);
+    }
+
+    @Override
+    public boolean update(User user) {
+        if (!usersById.containsKey(user.getUuid())) {
+            return false;
+        }
+        save(user);
+        return true;
+    }
+
+    @Override
+    public User save(User user) {
+        usersById.put(user.getUuid(), user);
+        usersByEmail.put(user.getEmail(), user);
+        return user;
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        User removed = usersById.remove(uuid);
+        if (removed != null) {
+            usersByEmail.remove(removed.getEmail());
+        }
+    }
+
+    @Override
+    public boolean updatePasswordHash(UUID uuid, String expectedHash, String newHash) {
+        User user = usersById.get(uuid);
+        if (user == null || !Objects.equals(user.getHashPassword(), expectedHash)) {
+            return false;
+        }
+        user.setHashPassword(newHash);
+        return true;
+    }
+
+    @Override
+    public boolean updateLastActive(UUID uuid, Date lastActive) {
+        User user = usersById.get(uuid);
+        if (user == null || (user.getLastActive() != null && !user.getLastActive().before(lastActive))) {
+            return false;
+        }
+        user.setLastActive(lastActive);
+        return true;
+    }
+
+    @Override
+    public int updateLastActiveBatch(Map<UUID, Date> lastActive) {
+        int updated = 0;
+        for (Map.Entry<UUID, Date> entry : lastActive.entrySet()) {
+            if (updateLastActive(entry.getKey(), entry.getValue())) {
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean recordLogin(UUID uuid, Date loginTime) {
+        User user = usersById.get(uuid);
+        if (user == null) {
+            return false;
+        }
+        user.setLastLogin(loginTime);
+        if (user.getLastActive() == null || user.getLastActive().before(loginTime)) {
+            user.setLastActive(loginTime);
+        }
+        return true;
+    }
+
+    @Override
+    public List<UserStatusChange> updateStatuses(List<UUID> uuids, int newStatus) {
+        throw unsupported();
+    }
+
+    @Override
+    public User findUserWithLibrary(UUID userId) {
+        return usersById.get(userId);
+    }
+
+    @Override
+    public User findUserWithNovelLibraries(UUID userId) {
+        return usersById.get(userId);
+    }
+
+    @Override
+    public List<User> findUsersForAdmin(AdminUserFilterDTO filter, int offset) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<User> findUsersForAdminAfter(AdminUserFilterDTO filter, UserCursor cursor, int limit) {
+        throw unsupported();
+    }
+
+    @Override
+    public long countUsersForAdmin(AdminUserFilterDTO filter) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<UUID> findBlockedUserIds() {
+        throw unsupported();
+    }
+
+    @Override
+    public List<User> findAllUsersForRanking() {
+        throw unsupported();
+    }
+
+    @Override
+    public List<User> findByUuids(List<UUID> uuids) {
+        List<User> result = new ArrayList<>(uuids.size());
+        for (UUID uuid : uuids) {
+            User user = usersById.get(uuid);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Library findLibraryByUserId(UUID userId) {
+        throw unsupported();
+    }
+
+    @Override
+    public Library saveLibrary(Library library) {
+        throw unsupported();
+    }
+
+    @Override
+    public NovelLibrary findNovelLibraryByUserIdAndNovelId(UUID userId, Integer novelId) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<NovelLibrary> findNovelLibrariesByUserId(UUID userId) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<Integer> findNovelIdsByUserId(UUID userId) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<NovelLibrary> findNovelLibrariesByUserIdWithPagination(UUID userId, List<Integer> novelIds,
+                                                                       int offset, int size, String sort, String order) {
+        throw unsupported();
+    }
+
+    @Override
+    public long countNovelLibrariesByUserId(UUID userId, List<Integer> novelIds) {
+        throw unsupported();
+    }
+
+    @Override
+    public NovelLibrary saveNovelLibrary(NovelLibrary novelLibrary) {
+        throw unsupported();
+    }
+
+    @Override
+    public void deleteNovelLibrary(Integer id) {
+        throw unsupported();
+    }
+
+    @Override
+    public void deleteNovelLibrariesByUserIdAndNovelIds(UUID userId, List<Integer> novelIds) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<NovelLibrary> findNovelLibrariesByUserIdAndNovelIds(UUID userId, List<Integer> novelIds) {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("not needed by benchmarks");
+    }
+}
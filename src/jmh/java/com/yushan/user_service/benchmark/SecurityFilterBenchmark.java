@@ -0,0 +1,126 @@
+package com.yushan.user_service.benchmark;
+
+import com.yushan.user_service.entity.User;
+import com.yushan.user_service.security.GatewayAuthenticationFilter;
+import com.yushan.user_service.security.JwtAuthenticationFilter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full per-request cost of the two authentication filters, including the
+ * user lookup (in memory), the replay check and SecurityContext population
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SecurityFilterBenchmark {
+
+    // the filters only need a chain that returns
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter jwtFilter;
+
+    private MockHttpServletRequest jwtRequest;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void setUp() {
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        User user = userRepository.save(BenchmarkFixtures.user(false, true));
+
+        jwtFilter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(jwtFilter, "jwtUtil", BenchmarkFixtures.jwtUtil());
+        ReflectionTestUtils.setField(jwtFilter, "userRepository", userRepository);
+        ReflectionTestUtils.setField(jwtFilter, "rejectionWriter", BenchmarkFixtures.rejectionWriter());
+
+        jwtRequest = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        jwtRequest.addHeader("Authorization", "Bearer " + BenchmarkFixtures.jwtUtil().generateAccessToken(user));
+    }
+
+    @Benchmark
+    public void jwtFilter(Blackhole blackhole) throws Exception {
+        jwtFilter.doFilter(jwtRequest, response, NO_OP_CHAIN);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void gatewayFilter(Gateway gateway, Blackhole blackhole) throws Exception {
+        gateway.filter.doFilter(gateway.request, response, NO_OP_CHAIN);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Gateway filter with a freshly signed request for every invocation, as the gateway
+     * sends them: each signed header set is accepted once, so reusing one would only
+     * measure the replay 403
+     */
+    @State(Scope.Thread)
+    public static class Gateway {
+
+        // spread over users so each one still gets a new millisecond on every request
+        private static final int USERS = 1024;
+
+        private final User[] users = new User[USERS];
+        private final long[] lastTimestamps = new long[USERS];
+        private int next;
+
+        private GatewayAuthenticationFilter filter;
+        private MockHttpServletRequest request;
+
+        @Setup
+        public void setUp() {
+            InMemoryUserRepository userRepository = new InMemoryUserRepository();
+            for (int i = 0; i < USERS; i++) {
+                users[i] = userRepository.save(BenchmarkFixtures.user(false, true));
+            }
+
+            filter = new GatewayAuthenticationFilter();
+            ReflectionTestUtils.setField(filter, "userRepository", userRepository);
+            ReflectionTestUtils.setField(filter, "rejectionWriter", BenchmarkFixtures.rejectionWriter());
+            ReflectionTestUtils.setField(filter, "signatureVerifier", BenchmarkFixtures.signatureVerifier());
+            ReflectionTestUtils.setField(filter, "replayCache", BenchmarkFixtures.replayCache());
+        }
+
+        // signing is setup work, so it is not part of the measured time
+        @Setup(Level.Invocation)
+        public void sign() throws Exception {
+            int index = next;
+            next = (next + 1) % USERS;
+            User user = users[index];
+            long timestamp = Math.max(System.currentTimeMillis(), lastTimestamps[index] + 1);
+            lastTimestamps[index] = timestamp;
+
+            String userId = user.getUuid().toString();
+            request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+            request.addHeader("X-Gateway-Validated", "true");
+            request.addHeader("X-User-Id", userId);
+            request.addHeader("X-User-Email", user.getEmail());
+            request.addHeader("X-User-Role", "AUTHOR");
+            request.addHeader("X-Gateway-Timestamp", String.valueOf(timestamp));
+            request.addHeader("X-Gateway-Signature",
+                    BenchmarkFixtures.gatewaySignature(userId, user.getEmail(), "AUTHOR", timestamp));
+        }
+    }
+}
@@ -5,13 +5,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
-import org.springframework.scheduling.annotation.EnableAsync;
 
 @SpringBootApplication
 @EnableDiscoveryClient    // Register with Eureka
 @EnableFeignClients       // Enable Feign clients for inter-service calls
 @EnableCaching            // Enable caching
-@EnableAsync(proxyTargetClass = true)
 public class UserServiceApplication {
 
 	public static void main(String[] args) {
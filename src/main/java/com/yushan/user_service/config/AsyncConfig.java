@@ -0,0 +1,61 @@
+package com.yushan.user_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.task.ThreadPoolTaskExecutorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Enables @Async on Spring Boot's application task executor
+ *
+ * The executor is bounded by spring.task.execution.pool.* (core/max threads and queue
+ * capacity) and drains queued tasks on shutdown. When it is saturated the submitting
+ * thread runs the task itself, which slows the producer down instead of growing the
+ * queue; each such rejection is counted in async.rejected. Queue depth and active
+ * threads are published by Boot as executor.queued / executor.active
+ * (name=applicationTaskExecutor).
+ *
+ * Workloads with their own limits keep their own pools: password hashing
+ * (PasswordHashService) and activity writes (UserActivityListener).
+ */
+@Slf4j
+@Configuration
+@EnableAsync(proxyTargetClass = true)
+public class AsyncConfig implements AsyncConfigurer {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean
+    public ThreadPoolTaskExecutorCustomizer boundedTaskExecutorCustomizer() {
+        return executor -> executor.setRejectedExecutionHandler(callerRunsAndCount());
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (e, method, params) -> log.error("@Async method {} failed", method.getName(), e);
+    }
+
+    private RejectedExecutionHandler callerRunsAndCount() {
+        Counter rejected = Counter.builder("async.rejected")
+                .description("@Async tasks run on the caller because the executor was saturated")
+                .register(meterRegistry);
+        return (task, executor) -> {
+            rejected.increment();
+            if (executor.isShutdown()) {
+                log.warn("Dropping @Async task submitted after shutdown");
+                return;
+            }
+            task.run();
+        };
+    }
+}
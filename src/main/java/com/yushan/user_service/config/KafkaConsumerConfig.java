@@ -0,0 +1,189 @@
+package com.yushan.user_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.event.codec.UserActivityEventCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumer side: listener containers, retries and dead letters
+ *
+ * "active" records are read as raw bytes and decoded once by {@link UserActivityEventCodec}
+ * (JSON or the binary encoding), so no String or JSON tree is built per message. Its container
+ * runs kafka.consumer.activity.concurrency consumers and delivers each poll as one batch.
+ *
+ * Every @KafkaListener shares {@link #kafkaErrorHandler()} (Spring Boot also applies it to
+ * the default container factory): a failed record is retried in place with exponential
+ * backoff, then published to "&lt;topic&gt;.DLT" with its original key, value and headers
+ * plus the kafka_dlt-* headers describing the failure, and the partition moves on.
+ * Non-retryable exceptions (undecodable payloads, kafka.consumer.retry.not-retryable)
+ * skip the retries. Dead letters can be replayed with DeadLetterReplayService.
+ */
+@Slf4j
+@Configuration
+public class KafkaConsumerConfig {
+
+    public static final String DEAD_LETTER_SUFFIX = ".DLT";
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${spring.kafka.consumer.auto-offset-reset:latest}")
+    private String autoOffsetReset;
+
+    @Value("${kafka.consumer.retry.initial-interval-ms:500}")
+    private long retryInitialIntervalMs;
+
+    @Value("${kafka.consumer.retry.multiplier:2.0}")
+    private double retryMultiplier;
+
+    @Value("${kafka.consumer.retry.max-interval-ms:10000}")
+    private long retryMaxIntervalMs;
+
+    @Value("${kafka.consumer.retry.max-retries:4}")
+    private int retryMaxRetries;
+
+    // one consumer thread per partition at most; keep in line with the partition count of "active"
+    @Value("${kafka.consumer.activity.concurrency:3}")
+    private int activityConcurrency;
+
+    @Value("${kafka.consumer.activity.max-poll-records:500}")
+    private int activityMaxPollRecords;
+
+    // fully qualified exception class names, in addition to IllegalArgumentException
+    @Value("${kafka.consumer.retry.not-retryable:}")
+    private List<String> notRetryable;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean
+    public UserActivityEventCodec userActivityEventCodec(ObjectMapper objectMapper) {
+        return new UserActivityEventCodec(objectMapper);
+    }
+
+    @Bean
+    public ConsumerFactory<String, byte[]> activityConsumerFactory() {
+        Map<String, Object> props = byteConsumerProps();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, activityMaxPollRecords);
+        DefaultKafkaConsumerFactory<String, byte[]> factory = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new ByteArrayDeserializer());
+        // client metrics, including records-lag-max per partition
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry, List.of(Tag.of("listener", "activity"))));
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> activityListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(activityConsumerFactory());
+        factory.setConcurrency(activityConcurrency);
+        // UserActivityListener returns after all writes of the poll, then the offsets are committed
+        factory.setBatchListener(true);
+        factory.setCommonErrorHandler(kafkaErrorHandler());
+        return factory;
+    }
+
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler() {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(deadLetterKafkaTemplate(),
+                (record, e) -> new TopicPartition(record.topic() + DEAD_LETTER_SUFFIX, -1));
+
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(retryMaxRetries);
+        backOff.setInitialInterval(retryInitialIntervalMs);
+        backOff.setMultiplier(retryMultiplier);
+        backOff.setMaxInterval(retryMaxIntervalMs);
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        // undecodable payloads fail the same way every time
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+        for (String className : notRetryable) {
+            if (!className.isBlank()) {
+                errorHandler.addNotRetryableExceptions(exceptionClass(className.trim()));
+            }
+        }
+        errorHandler.setRetryListeners((record, e, attempt) ->
+                log.warn("Retrying record {}-{}@{} (attempt {}): {}",
+                        record.topic(), record.partition(), record.offset(), attempt, e.getMessage()));
+        return errorHandler;
+    }
+
+    /**
+     * Publishes dead letters and replays with the original bytes untouched;
+     * String values come from listeners on the default container factory
+     */
+    @Bean
+    public KafkaTemplate<String, Object> deadLetterKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+
+        Map<Class<?>, Serializer<?>> valueSerializers = new LinkedHashMap<>();
+        valueSerializers.put(byte[].class, new ByteArraySerializer());
+        valueSerializers.put(String.class, new StringSerializer());
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props, new StringSerializer(),
+                new DelegatingByTypeSerializer(valueSerializers)));
+    }
+
+    /**
+     * Reads dead-letter topics for replay; offsets are committed by the replay itself
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> deadLetterConsumerFactory() {
+        Map<String, Object> props = byteConsumerProps();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "user-service-dlt-replay");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private Map<String, Object> byteConsumerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
+        return props;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Exception> exceptionClass(String className) {
+        try {
+            Class<?> type = ClassUtils.forName(className, KafkaConsumerConfig.class.getClassLoader());
+            if (!Exception.class.isAssignableFrom(type)) {
+                throw new IllegalStateException(className + " is not an exception type");
+            }
+            return (Class<? extends Exception>) type;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown exception class in kafka.consumer.retry.not-retryable: " + className, e);
+        }
+    }
+}
@@ -1,37 +1,133 @@
 package com.yushan.user_service.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.event.codec.EventCodecSerializer;
+import com.yushan.user_service.event.codec.UserActivityEventCodec;
+import com.yushan.user_service.event.dto.UserActivityEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Two producer profiles, each with its own producer and template:
+ *
+ * - reliable (default template): user.events and user-status-events from the outbox relay.
+ *   acks=all with idempotence, no linger; the relay already hands records over in batches.
+ * - activity ("activityKafkaTemplate"): the high-volume "active" topic. Lingers so one
+ *   request burst fills a batch, compresses it, and only waits for the leader. With
+ *   kafka.producer.activity.codec=binary the events use the compact UserActivityEventCodec.
+ *
+ * Every value can be overridden under kafka.producer.reliable.* / kafka.producer.activity.*.
+ * Producer client metrics are bound to Micrometer with a "profile" tag.
+ */
 @Configuration
 public class KafkaProducerConfig {
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${kafka.producer.reliable.linger-ms:0}")
+    private int reliableLingerMs;
+
+    @Value("${kafka.producer.reliable.batch-size:16384}")
+    private int reliableBatchSize;
+
+    @Value("${kafka.producer.reliable.compression-type:none}")
+    private String reliableCompressionType;
+
+    @Value("${kafka.producer.activity.linger-ms:20}")
+    private int activityLingerMs;
+
+    @Value("${kafka.producer.activity.batch-size:65536}")
+    private int activityBatchSize;
+
+    @Value("${kafka.producer.activity.compression-type:lz4}")
+    private String activityCompressionType;
+
+    @Value("${kafka.producer.activity.acks:1}")
+    private String activityAcks;
+
+    // json, or binary for UserActivityEventCodec (consumers must understand it)
+    @Value("${kafka.producer.activity.codec:json}")
+    private String activityCodec;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Bean
+    @Primary
     public ProducerFactory<String, Object> producerFactory() {
+        Map<String, Object> configProps = baseProps();
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, reliableLingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, reliableBatchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, reliableCompressionType);
+
+        return withMetrics(new DefaultKafkaProducerFactory<>(configProps), "reliable");
+    }
+
+    @Bean
+    @Primary
+    public KafkaTemplate<String, Object> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+    @Bean
+    public ProducerFactory<String, Object> activityProducerFactory() {
+        Map<String, Object> configProps = baseProps();
+        configProps.put(ProducerConfig.ACKS_CONFIG, activityAcks);
+        // idempotence needs acks=all; losing a rare activity ping is acceptable
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "all".equals(activityAcks));
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, activityLingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, activityBatchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, activityCompressionType);
+
+        if ("binary".equalsIgnoreCase(activityCodec)) {
+            Serializer<Object> valueSerializer = new EventCodecSerializer<>(UserActivityEvent.class,
+                    new UserActivityEventCodec(objectMapper), new JsonSerializer<>());
+            return withMetrics(new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer),
+                    "activity");
+        }
+        return withMetrics(new DefaultKafkaProducerFactory<>(configProps), "activity");
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> activityKafkaTemplate() {
+        return new KafkaTemplate<>(activityProducerFactory());
+    }
+
+    private Map<String, Object> baseProps() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
 
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return configProps;
     }
 
-    @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    private ProducerFactory<String, Object> withMetrics(DefaultKafkaProducerFactory<String, Object> factory,
+                                                        String profile) {
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry, List.of(Tag.of("profile", profile))));
+        return factory;
     }
-}
\ No newline at end of file
+}
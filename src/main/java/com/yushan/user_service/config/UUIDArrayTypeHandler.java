@@ -0,0 +1,54 @@
+package com.yushan.user_service.config;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Binds a UUID[] as a single SQL array parameter (uuid[]), for "uuid = ANY(#{ids})"
+ * instead of an IN list with one placeholder per element
+ *
+ * Not registered globally; reference it with typeHandler= on the parameter.
+ */
+public class UUIDArrayTypeHandler extends BaseTypeHandler<UUID[]> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, UUID[] parameter, JdbcType jdbcType) throws SQLException {
+        Array array = ps.getConnection().createArrayOf("uuid", parameter);
+        ps.setArray(i, array);
+    }
+
+    @Override
+    public UUID[] getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toUuids(rs.getArray(columnName));
+    }
+
+    @Override
+    public UUID[] getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toUuids(rs.getArray(columnIndex));
+    }
+
+    @Override
+    public UUID[] getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toUuids(cs.getArray(columnIndex));
+    }
+
+    private UUID[] toUuids(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        Object[] values = (Object[]) array.getArray();
+        UUID[] uuids = new UUID[values.length];
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            uuids[i] = value == null || value instanceof UUID ? (UUID) value : UUID.fromString(value.toString());
+        }
+        return uuids;
+    }
+}
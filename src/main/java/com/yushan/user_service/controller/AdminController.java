@@ -5,6 +5,7 @@ import com.yushan.user_service.enums.UserStatus;
 import com.yushan.user_service.exception.UnauthorizedException;
 import com.yushan.user_service.exception.ValidationException;
 import com.yushan.user_service.service.AdminService;
+import com.yushan.user_service.service.DeadLetterReplayService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +14,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -24,6 +26,9 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private DeadLetterReplayService deadLetterReplayService;
+
     /**
      * Promote user to admin by email
      */
@@ -66,6 +71,25 @@ public class AdminController {
         return ApiResponse.success("Users retrieved successfully", userPage);
     }
 
+    /**
+     * Get users page by page with a cursor instead of an offset
+     * Pass nextCursor from the previous response to get the following page
+     */
+    @GetMapping("/users/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<CursorPageResponseDTO<UserProfileResponseDTO>> scrollUsers(
+            @RequestParam(required = false) UserStatus status,
+            @RequestParam(required = false) Boolean isAdmin,
+            @RequestParam(required = false) Boolean isAuthor,
+            @RequestParam(defaultValue = "desc") String sortOrder,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        AdminUserFilterDTO filter = new AdminUserFilterDTO(0, size, status, isAdmin, isAuthor, "createTime", sortOrder);
+        CursorPageResponseDTO<UserProfileResponseDTO> userPage = adminService.scrollUsers(filter, cursor);
+        return ApiResponse.success("Users retrieved successfully", userPage);
+    }
+
     /**
      * update a user's status
      */
@@ -77,4 +101,33 @@ public class AdminController {
         adminService.updateUserStatus(uuid, statusUpdateDTO.getStatus());
         return ApiResponse.success("User status updated successfully");
     }
+
+    /**
+     * update the status of many users at once
+     * Returns the UUIDs whose status actually changed
+     */
+    @PutMapping("/users/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<List<UUID>> updateUserStatuses(
+            @Valid @RequestBody AdminBulkStatusUpdateDTO request) {
+        List<UUID> updated = adminService.updateUserStatuses(request.getUuids(), request.getStatus());
+        return ApiResponse.success(updated.size() + " user statuses updated", updated);
+    }
+
+    /**
+     * Send dead letters of a Kafka topic back to it
+     * Returns how many records were replayed
+     */
+    @PostMapping("/kafka/dead-letters/{topic}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<Integer> replayDeadLetters(
+            @PathVariable String topic,
+            @RequestParam(defaultValue = "100") int maxRecords) {
+        try {
+            int replayed = deadLetterReplayService.replay(topic, maxRecords);
+            return ApiResponse.success(replayed + " dead letters replayed", replayed);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+    }
 }
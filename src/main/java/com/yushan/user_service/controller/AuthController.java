@@ -2,10 +2,13 @@ package com.yushan.user_service.controller;
 
 import com.yushan.user_service.dto.*;
 import com.yushan.user_service.entity.User;
+import com.yushan.user_service.enums.RateLimitPolicy;
 import com.yushan.user_service.exception.ValidationException;
 import com.yushan.user_service.repository.UserRepository;
 import com.yushan.user_service.service.AuthService;
 import com.yushan.user_service.service.MailService;
+import com.yushan.user_service.service.RateLimitService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +32,9 @@ public class AuthController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RateLimitService rateLimitService;
+
     /**
      * verifyEmail & Register a new user
      * @param registrationDTO
@@ -36,7 +42,10 @@ public class AuthController {
      */
     @PostMapping("/register")
     @ResponseStatus(HttpStatus.CREATED)
-    public ApiResponse<UserAuthResponseDTO> register(@Valid @RequestBody UserRegistrationRequestDTO registrationDTO) {
+    public ApiResponse<UserAuthResponseDTO> register(@Valid @RequestBody UserRegistrationRequestDTO registrationDTO,
+                                                     HttpServletRequest request) {
+        rateLimitService.acquire(RateLimitPolicy.REGISTER_IP, getClientIp(request));
+
         // no need to check if email exists here since we check it in register()
         boolean isValid = mailService.verifyEmail(registrationDTO.getEmail(), registrationDTO.getCode());
 
@@ -56,9 +65,17 @@ public class AuthController {
      * @return
      */
     @PostMapping("/login")
-    public ApiResponse<UserAuthResponseDTO> login(@Valid @RequestBody UserLoginRequestDTO loginRequest) {
+    public ApiResponse<UserAuthResponseDTO> login(@Valid @RequestBody UserLoginRequestDTO loginRequest,
+                                                  HttpServletRequest request) {
         String email = loginRequest.getEmail();
         String password = loginRequest.getPassword();
+
+        // throttle before any password hashing work is done; the per-IP window is the
+        // brute-force guard, the email window is per client so nobody else can use it up
+        String clientIp = getClientIp(request);
+        rateLimitService.acquire(RateLimitPolicy.LOGIN_IP, clientIp);
+        rateLimitService.acquire(RateLimitPolicy.LOGIN_EMAIL_IP, email + "|" + clientIp);
+
         UserAuthResponseDTO responseDTO = authService.loginAndCreateResponse(email, password);
         return ApiResponse.success("Login successful", responseDTO);
     }
@@ -94,9 +111,12 @@ public class AuthController {
      * @return
      */
     @PostMapping("/send-email")
-    public ApiResponse<String> sendEmail(@RequestBody EmailVerificationRequestDTO emailRequest) {
+    public ApiResponse<String> sendEmail(@RequestBody EmailVerificationRequestDTO emailRequest,
+                                        HttpServletRequest request) {
         String email = emailRequest.getEmail();
 
+        rateLimitService.acquire(RateLimitPolicy.VERIFICATION_EMAIL_IP, getClientIp(request));
+
         //query email if exists
         User user = userRepository.findByEmail(email);
         if (user != null) {
@@ -107,4 +127,17 @@ public class AuthController {
 
         return ApiResponse.success("Verification code sent successfully");
     }
+
+    /**
+     * Resolve the originating client IP
+     *
+     * X-Forwarded-For is not read here: the client controls its leading hops. With
+     * server.forward-headers-strategy=native, Tomcat's RemoteIpValve sets the remote
+     * address to the last hop not added by a trusted proxy (server.tomcat.remoteip.internal-proxies).
+     * @param request
+     * @return
+     */
+    private String getClientIp(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
 }
@@ -1,11 +1,18 @@
 package com.yushan.user_service.controller;
 
 import com.yushan.user_service.dto.ApiResponse;
+import com.yushan.user_service.dto.BlockedUsersDeltaDTO;
 import com.yushan.user_service.service.AdminService;
+import com.yushan.user_service.service.BlockedUserIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -25,20 +32,59 @@ public class InternalController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private BlockedUserIndex blockedUserIndex;
+
     /**
      * Get list of blocked user IDs (SUSPENDED or BANNED)
      * 
      * This endpoint is used by API Gateway to bootstrap user blocklist on startup
      * No authentication required - accessible only from internal network
+     * Returns 304 when If-None-Match matches the current ETag
      * 
+     * @param ifNoneMatch ETag from the caller's previous response
      * @return List of blocked user UUIDs
      */
     @GetMapping("/blocked-users")
-    public ApiResponse<List<UUID>> getBlockedUsers() {
+    public ResponseEntity<ApiResponse<List<UUID>>> getBlockedUsers(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = blockedUserIndex.etag();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
         log.debug("Internal request to get blocked users list");
         List<UUID> blockedUserIds = adminService.getBlockedUserIds();
         log.info("Returning {} blocked users to internal caller", blockedUserIds.size());
-        return ApiResponse.success("Blocked users retrieved successfully", blockedUserIds);
+        return ResponseEntity.ok().eTag(etag)
+                .body(ApiResponse.success("Blocked users retrieved successfully", blockedUserIds));
     }
-}
 
+    /**
+     * Get changes to the blocked-user set since a version the caller holds
+     * 
+     * Gateways poll this after the first sync; sinceVersion=0 (or an unknown epoch)
+     * returns the full set with full=true. Returns 304 when If-None-Match matches.
+     * 
+     * @param sinceVersion version from the caller's last response
+     * @param epoch epoch from the caller's last response
+     * @param ifNoneMatch ETag from the caller's previous response
+     * @return blocked and unblocked user UUIDs since sinceVersion
+     */
+    @GetMapping(value = "/blocked-users", params = "sinceVersion")
+    public ResponseEntity<ApiResponse<BlockedUsersDeltaDTO>> getBlockedUserChanges(
+            @RequestParam long sinceVersion,
+            @RequestParam(required = false) Long epoch,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = blockedUserIndex.etag();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        BlockedUsersDeltaDTO delta = blockedUserIndex.changesSince(epoch, sinceVersion);
+        log.debug("Returning blocked user changes since version {}: {} blocked, {} unblocked (full={})",
+                sinceVersion, delta.getBlocked().size(), delta.getUnblocked().size(), delta.isFull());
+        return ResponseEntity.ok().eTag(etag)
+                .body(ApiResponse.success("Blocked user changes retrieved successfully", delta));
+    }
+}
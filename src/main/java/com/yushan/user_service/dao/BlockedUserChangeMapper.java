@@ -0,0 +1,36 @@
+package com.yushan.user_service.dao;
+
+import com.yushan.user_service.entity.BlockedUserChange;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mapper for the blocked_user_changes table
+ */
+@Mapper
+public interface BlockedUserChangeMapper {
+
+    /**
+     * LOCK TABLE blocked_user_changes IN EXCLUSIVE MODE: appends run one at a time,
+     * so a version is never visible before a lower one (reads are not blocked)
+     */
+    void lockForAppend();
+
+    /**
+     * Append one change per user, all with the same direction
+     */
+    int insertBatch(@Param("userIds") List<UUID> userIds, @Param("blocked") boolean blocked);
+
+    /**
+     * @return highest committed version, 0 if the log is empty
+     */
+    long selectMaxVersion();
+
+    /**
+     * Changes after the given version, in version order
+     */
+    List<BlockedUserChange> selectSince(@Param("version") long version, @Param("limit") int limit);
+}
@@ -0,0 +1,35 @@
+package com.yushan.user_service.dao;
+
+import com.yushan.user_service.entity.OutboxMessage;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * Mapper for the outbox table
+ */
+@Mapper
+public interface OutboxMapper {
+
+    /**
+     * Insert messages in one statement
+     */
+    int insertBatch(@Param("messages") List<OutboxMessage> messages);
+
+    /**
+     * Take the relay lock for the current transaction (pg_try_advisory_xact_lock)
+     * @return false if another relay holds it
+     */
+    boolean tryLockRelay(@Param("lockKey") long lockKey);
+
+    /**
+     * Lock the oldest messages, in id order
+     */
+    List<OutboxMessage> selectBatchForUpdate(@Param("limit") int limit);
+
+    /**
+     * Delete messages that were sent
+     */
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
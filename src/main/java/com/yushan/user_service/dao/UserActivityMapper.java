@@ -0,0 +1,45 @@
+package com.yushan.user_service.dao;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mapper for user_activity: last_login / last_active kept apart from the users row
+ */
+@Mapper
+public interface UserActivityMapper {
+
+    /**
+     * Create the activity row of a new user, both timestamps NOW()
+     */
+    int insert(@Param("uuid") UUID uuid);
+
+    /**
+     * Same as insert, but a no-op if the row already exists (PostgreSQL ON CONFLICT)
+     * or the user does not
+     */
+    int insertIfAbsent(@Param("uuid") UUID uuid);
+
+    /**
+     * Set last_active only if it moves forward, creating the row if the user has none
+     * (PostgreSQL ON CONFLICT); a no-op for an unknown user
+     */
+    int upsertLastActive(@Param("uuid") UUID uuid, @Param("lastActive") Date lastActive);
+
+    /**
+     * upsertLastActive for many users in one statement
+     *
+     * @param lastActive user uuid -> last active time
+     * @return number of rows created or moved forward
+     */
+    int upsertLastActiveBatch(@Param("lastActive") Map<UUID, Date> lastActive);
+
+    /**
+     * Set last_login, and last_active unless it is already later
+     */
+    int updateLogin(@Param("uuid") UUID uuid, @Param("loginTime") Date loginTime);
+}
@@ -0,0 +1,36 @@
+package com.yushan.user_service.dao;
+
+import com.yushan.user_service.dto.AdminUserFilterDTO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * Mapper for user_counters: user totals per (status, is_author, is_admin)
+ */
+@Mapper
+public interface UserCounterMapper {
+
+    /**
+     * Add delta to one counter row
+     */
+    int increment(@Param("status") int status,
+                  @Param("isAuthor") boolean isAuthor,
+                  @Param("isAdmin") boolean isAdmin,
+                  @Param("delta") long delta);
+
+    /**
+     * Total users matching the admin list filters
+     */
+    long sumForFilter(@Param("filter") AdminUserFilterDTO filter);
+
+    /**
+     * LOCK TABLE user_counters IN EXCLUSIVE MODE: waits for writers holding counter rows
+     * and blocks new increments until the transaction ends (reads are not blocked)
+     */
+    void lockForReconcile();
+
+    /**
+     * Recompute every counter row from the users table
+     */
+    int reconcile();
+}
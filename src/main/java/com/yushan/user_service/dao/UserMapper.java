@@ -1,7 +1,9 @@
 package com.yushan.user_service.dao;
 
 import com.yushan.user_service.dto.AdminUserFilterDTO;
+import com.yushan.user_service.dto.UserCursor;
 import com.yushan.user_service.entity.User;
+import com.yushan.user_service.entity.UserStatusChange;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -16,19 +18,40 @@ public interface UserMapper {
 
     int insertSelective(User record);
 
+    /**
+     * INSERT ... ON CONFLICT (uuid) DO UPDATE of the non-null fields; record must have
+     * every NOT NULL column without a default, even when the row exists
+     */
+    int upsertSelective(User record);
+
     User selectByPrimaryKey(UUID uuid);
 
     User selectByEmail(String email);
 
+    User selectByEmailForUpdate(String email);
+
     int updateByPrimaryKeySelective(User record);
 
     int updateByPrimaryKey(User record);
 
+    int updatePasswordHashIfUnchanged(@Param("uuid") UUID uuid,
+                                      @Param("expectedHash") String expectedHash,
+                                      @Param("newHash") String newHash);
+
     List<User> selectUsersForAdmin(@Param("filter") AdminUserFilterDTO filter,
                                    @Param("offset") int offset);
 
+    List<User> selectUsersForAdminAfter(@Param("filter") AdminUserFilterDTO filter,
+                                        @Param("cursor") UserCursor cursor,
+                                        @Param("limit") int limit);
+
     long countUsersForAdmin(@Param("filter") AdminUserFilterDTO filter);
 
+    List<UUID> selectBlockedUserIds();
+
+    List<UserStatusChange> updateStatusByUuids(@Param("uuids") UUID[] uuids,
+                                               @Param("newStatus") int newStatus);
+
     List<User> selectAllUsersForRanking();
 
     List<User> selectByUuids(List<UUID> uuids);
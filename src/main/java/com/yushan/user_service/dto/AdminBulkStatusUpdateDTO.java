@@ -0,0 +1,29 @@
+package com.yushan.user_service.dto;
+
+import com.yushan.user_service.enums.UserStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class AdminBulkStatusUpdateDTO {
+    @NotEmpty(message = "uuids can not be empty")
+    @Size(max = 1000, message = "At most 1000 users can be updated at once")
+    private List<UUID> uuids;
+
+    @NotNull(message = "Status cannot be null")
+    private UserStatus status;
+
+    public List<UUID> getUuids() {
+        return uuids == null ? null : new ArrayList<>(uuids);
+    }
+
+    public void setUuids(List<UUID> uuids) {
+        this.uuids = uuids == null ? null : new ArrayList<>(uuids);
+    }
+}
@@ -0,0 +1,32 @@
+package com.yushan.user_service.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Changes to the blocked-user set since a version the caller already holds
+ *
+ * When full is true the caller's version could not be served incrementally
+ * (different epoch, or older than the retained change log): blocked is then the
+ * complete set and the caller must replace its copy instead of merging.
+ */
+@Getter
+@NoArgsConstructor
+public class BlockedUsersDeltaDTO {
+    private long epoch;
+    private long version;
+    private boolean full;
+    private List<UUID> blocked = List.of();
+    private List<UUID> unblocked = List.of();
+
+    public BlockedUsersDeltaDTO(long epoch, long version, boolean full, List<UUID> blocked, List<UUID> unblocked) {
+        this.epoch = epoch;
+        this.version = version;
+        this.full = full;
+        this.blocked = blocked != null ? List.copyOf(blocked) : List.of();
+        this.unblocked = unblocked != null ? List.copyOf(unblocked) : List.of();
+    }
+}
@@ -0,0 +1,37 @@
+package com.yushan.user_service.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing; pass nextCursor back to get the following page
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(exclude = "content")
+public class CursorPageResponseDTO<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+
+    public CursorPageResponseDTO(List<T> content, int size, String nextCursor) {
+        this.content = content != null ? new ArrayList<>(content) : new ArrayList<>();
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    // Override getter and setter for content to use defensive copy
+    public List<T> getContent() {
+        return content != null ? new ArrayList<>(content) : new ArrayList<>();
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content != null ? new ArrayList<>(content) : new ArrayList<>();
+    }
+}
@@ -0,0 +1,66 @@
+package com.yushan.user_service.dto;
+
+import com.yushan.user_service.entity.User;
+import com.yushan.user_service.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Keyset position in the admin user listing: the (create_time, uuid) of the last row returned
+ *
+ * Clients only see the opaque token. The SQL re-reads create_time for the uuid at full
+ * database precision and falls back to the encoded millisecond value if that row is gone.
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public final class UserCursor {
+
+    private final long createTime;
+    private final UUID uuid;
+
+    /**
+     * @param user last user of the current page
+     * @return cursor positioned after that user
+     */
+    public static UserCursor after(User user) {
+        return new UserCursor(user.getCreateTime().getTime(), user.getUuid());
+    }
+
+    /**
+     * @param token opaque cursor from a previous page, null or blank for the first page
+     * @return decoded cursor, or null for the first page
+     * @throws ValidationException if the token is malformed
+     */
+    public static UserCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            return new UserCursor(Long.parseLong(value.substring(0, separator)),
+                    UUID.fromString(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createTime + ":" + uuid).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Bound to the mapper as a timestamp parameter
+     */
+    public Date getCreateTimeAsDate() {
+        return new Date(createTime);
+    }
+}
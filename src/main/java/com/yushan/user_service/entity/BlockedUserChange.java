@@ -0,0 +1,18 @@
+package com.yushan.user_service.entity;
+
+import lombok.Data;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * One row of the blocked-user change log: the user moved in (blocked = true)
+ * or out of the blocked set at the given global version
+ */
+@Data
+public class BlockedUserChange {
+    private Long version;
+    private UUID userUuid;
+    private Boolean blocked;
+    private Date changedAt;
+}
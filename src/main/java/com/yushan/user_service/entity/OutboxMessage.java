@@ -0,0 +1,30 @@
+package com.yushan.user_service.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Kafka message waiting in the outbox table
+ *
+ * payload is the JSON form of an object of class payloadType; the relay turns it
+ * back into that object so the record (and its type header) is the same as a direct send.
+ */
+@Data
+@NoArgsConstructor
+public class OutboxMessage {
+    private Long id;
+    private String topic;
+    private String messageKey;
+    private String payloadType;
+    private String payload;
+    private Date createdAt;
+
+    public OutboxMessage(String topic, String messageKey, String payloadType, String payload) {
+        this.topic = topic;
+        this.messageKey = messageKey;
+        this.payloadType = payloadType;
+        this.payload = payload;
+    }
+}
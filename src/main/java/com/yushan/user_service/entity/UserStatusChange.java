@@ -0,0 +1,17 @@
+package com.yushan.user_service.entity;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * One row changed by a bulk status update: the user, the status it had
+ * before the update, and the role flags that pick its counter bucket
+ */
+@Data
+public class UserStatusChange {
+    private UUID uuid;
+    private Integer oldStatus;
+    private Boolean isAuthor;
+    private Boolean isAdmin;
+}
@@ -10,9 +10,11 @@ public enum ErrorCode {
     FORBIDDEN(403, "Forbidden"),
     NOT_FOUND(404, "Not Found"),
     VALIDATION_ERROR(400, "Validation Error"),
+    TOO_MANY_REQUESTS(429, "Too Many Requests"),
 
     // Server errors (5xx)
-    INTERNAL_SERVER_ERROR(500, "Internal Server Error");
+    INTERNAL_SERVER_ERROR(500, "Internal Server Error"),
+    SERVICE_UNAVAILABLE(503, "Service Unavailable");
 
     private final int code;
     private final String message;
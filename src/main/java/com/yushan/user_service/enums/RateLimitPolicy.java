@@ -0,0 +1,51 @@
+package com.yushan.user_service.enums;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding-window rate limit policies
+ *
+ * Each policy allows at most {@code limit} acquisitions per identifier
+ * (email, client IP, user id) within {@code window}.
+ */
+public enum RateLimitPolicy {
+    // identifier is email|client IP, so guessing on one address from elsewhere cannot lock its owner out
+    LOGIN_EMAIL_IP("rate_limit:login:email_ip:", 10, TimeUnit.MINUTES.toMillis(5), "too many login attempts"),
+    LOGIN_IP("rate_limit:login:ip:", 50, TimeUnit.MINUTES.toMillis(1), "too many login attempts"),
+    REGISTER_IP("rate_limit:register:ip:", 10, TimeUnit.HOURS.toMillis(1), "too many registration attempts"),
+    VERIFICATION_EMAIL("rate_limit:send_email:email:", 1, TimeUnit.SECONDS.toMillis(60), "email sends too often"),
+    VERIFICATION_EMAIL_IP("rate_limit:send_email:ip:", 20, TimeUnit.HOURS.toMillis(1), "email sends too often");
+
+    private final String keyPrefix;
+    private final int limit;
+    private final long windowMillis;
+    private final String message;
+
+    RateLimitPolicy(String keyPrefix, int limit, long windowMillis, String message) {
+        this.keyPrefix = keyPrefix;
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        this.message = message;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Redis key for the given identifier, normalized so that
+     * "User@Example.com" and "user@example.com" share one window
+     */
+    public String key(String identifier) {
+        return keyPrefix + identifier.trim().toLowerCase(Locale.ROOT);
+    }
+}
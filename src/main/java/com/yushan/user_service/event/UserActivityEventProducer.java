@@ -3,6 +3,7 @@ package com.yushan.user_service.event;
 import com.yushan.user_service.event.dto.UserActivityEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
@@ -12,7 +13,9 @@ public class UserActivityEventProducer {
 
     private static final String TOPIC = "active";
 
+    // batching, compressed producer profile (see KafkaProducerConfig)
     @Autowired
+    @Qualifier("activityKafkaTemplate")
     private KafkaTemplate<String, Object> kafkaTemplate;
 
     public void sendUserActivityEvent(UserActivityEvent event) {
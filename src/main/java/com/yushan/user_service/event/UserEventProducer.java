@@ -1,22 +1,24 @@
 package com.yushan.user_service.event;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yushan.user_service.event.dto.EventEnvelope;
 import com.yushan.user_service.event.dto.UserLoggedInEvent;
 import com.yushan.user_service.event.dto.UserRegisteredEvent;
+import com.yushan.user_service.service.OutboxService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+/**
+ * Queues user lifecycle events for "user.events" in the outbox
+ * 
+ * Call inside the transaction that changes the user; OutboxRelay sends them after commit.
+ */
 @Slf4j
 @Service
 public class UserEventProducer {
 
     private static final String TOPIC = "user.events";
-    @Autowired private KafkaTemplate<String, Object> kafkaTemplate;
-    @Autowired private ObjectMapper objectMapper;
+    @Autowired private OutboxService outboxService;
 
     public void sendUserRegisteredEvent(UserRegisteredEvent event) {
         send(event.getClass().getSimpleName(), event);
@@ -27,14 +29,10 @@ public class UserEventProducer {
     }
 
     private void send(String eventType, Object payload) {
-        try {
-            JsonNode payloadJson = objectMapper.valueToTree(payload);
-            EventEnvelope envelope = new EventEnvelope(eventType, payloadJson);
+        // the payload is written once, as part of the envelope, instead of via an intermediate tree
+        EventEnvelope envelope = EventEnvelope.of(eventType, payload);
 
-            log.info("Sending event in envelope [type={}] to topic {}", eventType, TOPIC);
-            kafkaTemplate.send(TOPIC, envelope);
-        } catch (Exception e) {
-            log.error("Error sending event envelope for type {}", eventType, e);
-        }
+        log.info("Queueing event in envelope [type={}] for topic {}", eventType, TOPIC);
+        outboxService.enqueue(TOPIC, null, envelope);
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,19 @@
 package com.yushan.user_service.event;
 
 import com.yushan.user_service.event.dto.UserStatusChangedEvent;
+import com.yushan.user_service.service.OutboxService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Kafka Event Producer for User Status Changes
  * 
- * Publishes UserStatusChangedEvent to "user-status-events" topic.
+ * Queues UserStatusChangedEvent for the "user-status-events" topic in the outbox.
  * This event is consumed by API Gateway to update Redis blocklist in real-time.
+ * Call inside the transaction that changes the status; OutboxRelay sends it after commit.
  * 
  * Format: Direct JSON (not wrapped in EventEnvelope) - Gateway expects direct deserialization
  */
@@ -21,23 +24,31 @@ public class UserStatusEventProducer {
     private static final String TOPIC = "user-status-events";
     
     @Autowired
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private OutboxService outboxService;
 
     /**
-     * Send UserStatusChangedEvent to Kafka
+     * Queue UserStatusChangedEvent
      * 
      * @param event UserStatusChangedEvent to publish
      */
     public void sendUserStatusChangedEvent(UserStatusChangedEvent event) {
-        try {
-            String key = event.getUserId(); // Use userId as Kafka key for partitioning
-            
-            log.info("Sending UserStatusChangedEvent to topic {} for user: {} ({} -> {})", 
-                TOPIC, event.getUserId(), event.getOldStatus(), event.getNewStatus());
-            kafkaTemplate.send(TOPIC, key, event);
-        } catch (Exception e) {
-            log.error("Error sending UserStatusChangedEvent for user: {}", event.getUserId(), e);
+        String key = event.getUserId(); // Use userId as Kafka key for partitioning
+        
+        log.info("Queueing UserStatusChangedEvent for topic {} for user: {} ({} -> {})", 
+            TOPIC, event.getUserId(), event.getOldStatus(), event.getNewStatus());
+        outboxService.enqueue(TOPIC, key, event);
+    }
+
+    /**
+     * Queue the events of one bulk status change with a single outbox insert
+     * 
+     * @param events events to publish
+     */
+    public void sendUserStatusChangedEvents(List<UserStatusChangedEvent> events) {
+        if (events.isEmpty()) {
+            return;
         }
+        outboxService.enqueueAll(TOPIC, events, UserStatusChangedEvent::getUserId);
+        log.info("Queued {} UserStatusChangedEvents for topic {}", events.size(), TOPIC);
     }
 }
-
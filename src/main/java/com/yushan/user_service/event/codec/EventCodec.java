@@ -0,0 +1,22 @@
+package com.yushan.user_service.event.codec;
+
+/**
+ * Turns one event type into Kafka record bytes and back
+ *
+ * @param <T> event type
+ */
+public interface EventCodec<T> {
+
+    /**
+     * @param event event to encode, not null
+     * @return record value
+     */
+    byte[] encode(T event);
+
+    /**
+     * @param data record value, not null
+     * @return decoded event
+     * @throws IllegalArgumentException if the bytes are not a valid encoding
+     */
+    T decode(byte[] data);
+}
@@ -0,0 +1,54 @@
+package com.yushan.user_service.event.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer that encodes one event type with its codec and hands
+ * every other value to a fallback serializer
+ *
+ * @param <T> event type handled by the codec
+ */
+public class EventCodecSerializer<T> implements Serializer<Object> {
+
+    private final Class<T> type;
+
+    private final EventCodec<T> codec;
+
+    private final Serializer<Object> fallback;
+
+    public EventCodecSerializer(Class<T> type, EventCodec<T> codec, Serializer<Object> fallback) {
+        this.type = type;
+        this.codec = codec;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        fallback.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (type.isInstance(data)) {
+            return codec.encode(type.cast(data));
+        }
+        return fallback.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (type.isInstance(data)) {
+            // the leading version byte identifies the encoding, no type header needed
+            return codec.encode(type.cast(data));
+        }
+        return fallback.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        fallback.close();
+    }
+}
@@ -0,0 +1,40 @@
+package com.yushan.user_service.event.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * Plain JSON encoding, written and read straight from bytes (no intermediate tree)
+ *
+ * @param <T> event type
+ */
+public class JsonEventCodec<T> implements EventCodec<T> {
+
+    private final ObjectMapper objectMapper;
+
+    private final Class<T> type;
+
+    public JsonEventCodec(ObjectMapper objectMapper, Class<T> type) {
+        this.objectMapper = objectMapper;
+        this.type = type;
+    }
+
+    @Override
+    public byte[] encode(T event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot encode " + type.getSimpleName() + " as JSON", e);
+        }
+    }
+
+    @Override
+    public T decode(byte[] data) {
+        try {
+            return objectMapper.readValue(data, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid " + type.getSimpleName() + " JSON", e);
+        }
+    }
+}
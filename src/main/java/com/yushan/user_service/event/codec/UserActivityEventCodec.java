@@ -0,0 +1,155 @@
+package com.yushan.user_service.event.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.event.dto.UserActivityEvent;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding for the "active" topic
+ *
+ * Layout (version 1), no field names on the wire:
+ * <pre>
+ * byte    version (0x01)
+ * byte    presence bits: userId, serviceName, endpoint, method, timestamp
+ * 16      userId (most, least significant bits)
+ * varint  length + UTF-8 bytes, for serviceName, endpoint and method
+ * varlong timestamp seconds (zig-zag, LocalDateTime read as UTC), varint nanos
+ * </pre>
+ * Absent fields are skipped. JSON always starts with '{', so {@link #decode(byte[])}
+ * also accepts the JSON written by older producers and other services.
+ */
+public class UserActivityEventCodec implements EventCodec<UserActivityEvent> {
+
+    public static final byte VERSION_1 = 1;
+
+    private static final int HAS_USER_ID = 1;
+    private static final int HAS_SERVICE_NAME = 1 << 1;
+    private static final int HAS_ENDPOINT = 1 << 2;
+    private static final int HAS_METHOD = 1 << 3;
+    private static final int HAS_TIMESTAMP = 1 << 4;
+
+    private final JsonEventCodec<UserActivityEvent> jsonCodec;
+
+    public UserActivityEventCodec(ObjectMapper objectMapper) {
+        this.jsonCodec = new JsonEventCodec<>(objectMapper, UserActivityEvent.class);
+    }
+
+    @Override
+    public byte[] encode(UserActivityEvent event) {
+        byte[] serviceName = utf8(event.serviceName());
+        byte[] endpoint = utf8(event.endpoint());
+        byte[] method = utf8(event.method());
+
+        int flags = (event.userId() != null ? HAS_USER_ID : 0)
+                | (serviceName != null ? HAS_SERVICE_NAME : 0)
+                | (endpoint != null ? HAS_ENDPOINT : 0)
+                | (method != null ? HAS_METHOD : 0)
+                | (event.timestamp() != null ? HAS_TIMESTAMP : 0);
+
+        // upper bound: header, uuid, three length-prefixed strings, timestamp
+        ByteBuffer buffer = ByteBuffer.allocate(2 + 16 + 15 + length(serviceName) + length(endpoint)
+                + length(method) + 15);
+        buffer.put(VERSION_1);
+        buffer.put((byte) flags);
+        if (event.userId() != null) {
+            buffer.putLong(event.userId().getMostSignificantBits());
+            buffer.putLong(event.userId().getLeastSignificantBits());
+        }
+        putBytes(buffer, serviceName);
+        putBytes(buffer, endpoint);
+        putBytes(buffer, method);
+        if (event.timestamp() != null) {
+            putVarLong(buffer, zigZag(event.timestamp().toEpochSecond(ZoneOffset.UTC)));
+            putVarLong(buffer, event.timestamp().getNano());
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    @Override
+    public UserActivityEvent decode(byte[] data) {
+        if (data.length > 0 && data[0] == '{') {
+            return jsonCodec.decode(data);
+        }
+        if (data.length < 2 || data[0] != VERSION_1) {
+            throw new IllegalArgumentException("Unsupported UserActivityEvent encoding version "
+                    + (data.length > 0 ? data[0] : "(empty)"));
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data, 1, data.length - 1);
+            int flags = buffer.get();
+            UUID userId = (flags & HAS_USER_ID) != 0 ? new UUID(buffer.getLong(), buffer.getLong()) : null;
+            String serviceName = (flags & HAS_SERVICE_NAME) != 0 ? getString(buffer) : null;
+            String endpoint = (flags & HAS_ENDPOINT) != 0 ? getString(buffer) : null;
+            String method = (flags & HAS_METHOD) != 0 ? getString(buffer) : null;
+            LocalDateTime timestamp = null;
+            if ((flags & HAS_TIMESTAMP) != 0) {
+                long seconds = unZigZag(getVarLong(buffer));
+                timestamp = LocalDateTime.ofEpochSecond(seconds, (int) getVarLong(buffer), ZoneOffset.UTC);
+            }
+            return new UserActivityEvent(userId, serviceName, endpoint, method, timestamp);
+        } catch (BufferUnderflowException | DateTimeException e) {
+            throw new IllegalArgumentException("Truncated or corrupt UserActivityEvent", e);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes != null) {
+            putVarLong(buffer, bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = (int) getVarLong(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new BufferUnderflowException();
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -1,8 +1,19 @@
 package com.yushan.user_service.event.dto;
 
-import com.fasterxml.jackson.databind.JsonNode;
-
+/**
+ * Wrapper for "user.events" records
+ *
+ * The payload is serialized directly as part of the envelope. version describes
+ * the envelope layout; records written before it existed read as version 0.
+ */
 public record EventEnvelope(
         String eventType,
-        JsonNode payload
-) {}
\ No newline at end of file
+        int version,
+        Object payload
+) {
+    public static final int CURRENT_VERSION = 1;
+
+    public static EventEnvelope of(String eventType, Object payload) {
+        return new EventEnvelope(eventType, CURRENT_VERSION, payload);
+    }
+}
@@ -1,19 +1,42 @@
 package com.yushan.user_service.listener;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.yushan.user_service.service.IdempotencyService;
+import com.yushan.user_service.event.codec.UserActivityEventCodec;
+import com.yushan.user_service.event.dto.UserActivityEvent;
 import com.yushan.user_service.service.UserService;
+import com.yushan.user_service.util.KeyOrderedExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+/**
+ * Consumes the "active" topic in batches
+ *
+ * Each polled batch is spread over a {@link KeyOrderedExecutor}: events of different users
+ * are written in parallel, events of the same user in offset order. The listener returns only
+ * when every write of the batch is done, so the container commits offsets after the database
+ * has the data. On a failure the batch is reported from the first failed record on
+ * (BatchListenerFailedException): earlier offsets are committed, the failed record is retried
+ * and then dead-lettered by the shared error handler (see KafkaConsumerConfig).
+ *
+ * There is no processed-event bookkeeping: applying an event only ever moves last_active
+ * forward (see LastActiveStore), so a redelivered or duplicate event is a no-op.
+ */
 @Slf4j
 @Component
 public class UserActivityListener {
@@ -22,45 +45,94 @@ public class UserActivityListener {
     private UserService userService;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private UserActivityEventCodec userActivityEventCodec;
 
     @Autowired
-    private IdempotencyService idempotencyService;
-
-    private static final String IDEMPOTENCY_PREFIX_USER_ACTIVITY = "idempotency:user-activity:";
-
-    @KafkaListener(topics = "active", groupId = "user-service")
-    public void handleUserActivity(@Payload String payload) {
-        try {
-            JsonNode jsonNode = objectMapper.readTree(payload);
-            JsonNode userIdNode = jsonNode.get("userId");
-            JsonNode timestampNode = jsonNode.get("timestamp");
-            if (userIdNode != null && !userIdNode.isNull() && timestampNode != null && !timestampNode.isNull()) {
-                UUID uuid = UUID.fromString(userIdNode.asText());
-                LocalDateTime timestamp = objectMapper.treeToValue(timestampNode, LocalDateTime.class);
-                
-                // Idempotency check: round timestamp to minute to handle duplicate events in same minute (hybrid: Redis + Database)
-                LocalDateTime timestampKey = timestamp.truncatedTo(ChronoUnit.MINUTES);
-                String idempotencyKey = IDEMPOTENCY_PREFIX_USER_ACTIVITY + uuid + ":" + timestampKey;
-                
-                if (idempotencyService.isProcessed(idempotencyKey, "UserActivity")) {
-                    log.info("User activity event already processed, skipping: userId={}, timestamp={}", uuid, timestampKey);
-                    return;
+    private MeterRegistry meterRegistry;
+
+    @Value("${kafka.consumer.activity.workers:8}")
+    private int workers;
+
+    @Value("${kafka.consumer.activity.worker-queue-capacity:256}")
+    private int workerQueueCapacity;
+
+    private KeyOrderedExecutor executor;
+
+    private Timer recordTimer;
+
+    private Timer batchTimer;
+
+    private record Pending(int index, CompletableFuture<Void> write) {
+    }
+
+    @PostConstruct
+    public void init() {
+        executor = new KeyOrderedExecutor("user-activity", workers, workerQueueCapacity);
+        recordTimer = Timer.builder("user.activity.record.processing")
+                .description("Time to apply one activity event, including the wait in its lane")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("user.activity.batch.processing")
+                .description("Time from receiving a polled batch to finishing all of its writes")
+                .register(meterRegistry);
+        Gauge.builder("user.activity.queued", executor, KeyOrderedExecutor::queuedTasks)
+                .description("Activity events waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+
+    @KafkaListener(topics = "active", groupId = "user-service",
+                   containerFactory = "activityListenerContainerFactory")
+    public void handleUserActivity(List<ConsumerRecord<String, byte[]>> records) {
+        Timer.Sample batchSample = Timer.start(meterRegistry);
+        List<Pending> pending = new ArrayList<>(records.size());
+        int failedIndex = -1;
+        Throwable failure = null;
+
+        for (int i = 0; i < records.size(); i++) {
+            UserActivityEvent event;
+            try {
+                // typed decode straight from the record bytes (JSON or binary)
+                event = userActivityEventCodec.decode(records.get(i).value());
+            } catch (IllegalArgumentException e) {
+                // later records are redelivered after this one is dead-lettered
+                failedIndex = i;
+                failure = e;
+                break;
+            }
+            if (event.userId() == null || event.timestamp() == null) {
+                log.warn("Received user activity event with missing or null fields: userId={}, timestamp={}",
+                        event.userId(), event.timestamp());
+                continue;
+            }
+            pending.add(new Pending(i, executor.submit(event.userId(), recordTimer.wrap(() -> handleEvent(event)))));
+        }
+
+        for (Pending write : pending) {
+            try {
+                write.write().join();
+            } catch (CompletionException e) {
+                if (failedIndex < 0 || write.index() < failedIndex) {
+                    failedIndex = write.index();
+                    failure = e.getCause();
                 }
-                
-                userService.updateLastActiveTime(uuid, timestamp);
-                
-                // Mark as processed (both Redis and Database)
-                idempotencyService.markAsProcessed(idempotencyKey, "UserActivity");
-                log.info("Successfully handled last active event for user: {}, timestamp: {}", uuid, timestamp);
-            } else {
-                log.warn("Received user activity event with missing or null fields. Payload: {}", payload);
             }
-        } catch (Exception e) {
-            log.error("Failed to deserialize UserActivityEvent", e);
-            // Re-throw to trigger Kafka retry mechanism
-            throw new RuntimeException("Failed to process UserActivityEvent", e);
+        }
+        batchSample.stop(batchTimer);
+
+        if (failure != null) {
+            throw new BatchListenerFailedException("Failed to process UserActivityEvent", failure, failedIndex);
         }
     }
-}
 
+    private void handleEvent(UserActivityEvent event) {
+        UUID uuid = event.userId();
+        LocalDateTime timestamp = event.timestamp();
+
+        userService.updateLastActiveTime(uuid, timestamp);
+        log.debug("Handled last active event for user: {}, timestamp: {}", uuid, timestamp);
+    }
+}
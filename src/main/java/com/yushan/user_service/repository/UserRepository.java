@@ -1,11 +1,15 @@
 package com.yushan.user_service.repository;
 
 import com.yushan.user_service.dto.AdminUserFilterDTO;
+import com.yushan.user_service.dto.UserCursor;
 import com.yushan.user_service.entity.Library;
 import com.yushan.user_service.entity.NovelLibrary;
 import com.yushan.user_service.entity.User;
+import com.yushan.user_service.entity.UserStatusChange;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -19,10 +23,65 @@ public interface UserRepository {
     
     User findByEmail(String email);
     
+    /**
+     * findByEmail, locking the user row until the current transaction ends; for read-modify-write
+     * changes whose "before" state must not change underneath them (e.g. counter buckets)
+     */
+    User findByEmailForUpdate(String email);
+    
+    /**
+     * Insert a new user; null fields are left to column defaults
+     */
+    User insert(User user);
+    
+    /**
+     * Update the non-null fields of an existing user
+     * @return true if the user exists and was updated
+     */
+    boolean update(User user);
+    
+    /**
+     * Insert or update in one statement, for callers that do not know whether the user exists
+     *
+     * The user must be complete (email, username, hashPassword, avatarUrl, gender set):
+     * PostgreSQL checks NOT NULL on the proposed insert row before it looks for a conflict,
+     * so a partial user fails even when it exists. Use {@link #update(User)} for partial changes.
+     */
     User save(User user);
     
     void delete(UUID uuid);
     
+    /**
+     * Replace the password hash only if it still equals expectedHash
+     * @return true if the row was updated
+     */
+    boolean updatePasswordHash(UUID uuid, String expectedHash, String newHash);
+    
+    /**
+     * Set last_active only if it is newer than the stored value, in one statement
+     * @return true if the row was updated, false if the user is missing or already more recent
+     */
+    boolean updateLastActive(UUID uuid, Date lastActive);
+    
+    /**
+     * updateLastActive for many users in one statement
+     * @param lastActive user uuid -> last active time
+     * @return number of users whose last_active moved forward
+     */
+    int updateLastActiveBatch(Map<UUID, Date> lastActive);
+    
+    /**
+     * Set last_login (and last_active, unless it is already later) without touching the users row
+     * @return true if the row was updated
+     */
+    boolean recordLogin(UUID uuid, Date loginTime);
+    
+    /**
+     * Set the status of many users in one statement
+     * @return one entry per user whose status actually changed, with its previous status
+     */
+    List<UserStatusChange> updateStatuses(List<UUID> uuids, int newStatus);
+    
     // Aggregate-level queries
     /**
      * Find user with library information
@@ -37,8 +96,18 @@ public interface UserRepository {
     // Admin queries
     List<User> findUsersForAdmin(AdminUserFilterDTO filter, int offset);
     
+    /**
+     * Keyset page of the admin listing: up to limit users after the cursor (first page if null)
+     */
+    List<User> findUsersForAdminAfter(AdminUserFilterDTO filter, UserCursor cursor, int limit);
+    
     long countUsersForAdmin(AdminUserFilterDTO filter);
     
+    /**
+     * UUIDs of all SUSPENDED or BANNED users, without loading the rows
+     */
+    List<UUID> findBlockedUserIds();
+    
     // Ranking queries
     List<User> findAllUsersForRanking();
     
@@ -2,16 +2,21 @@ package com.yushan.user_service.repository.impl;
 
 import com.yushan.user_service.dao.LibraryMapper;
 import com.yushan.user_service.dao.NovelLibraryMapper;
+import com.yushan.user_service.dao.UserActivityMapper;
 import com.yushan.user_service.dao.UserMapper;
 import com.yushan.user_service.dto.AdminUserFilterDTO;
+import com.yushan.user_service.dto.UserCursor;
 import com.yushan.user_service.entity.Library;
 import com.yushan.user_service.entity.NovelLibrary;
 import com.yushan.user_service.entity.User;
+import com.yushan.user_service.entity.UserStatusChange;
 import com.yushan.user_service.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -24,6 +29,9 @@ public class MyBatisUserRepository implements UserRepository {
     @Autowired
     private UserMapper userMapper;
     
+    @Autowired
+    private UserActivityMapper userActivityMapper;
+    
     @Autowired
     private LibraryMapper libraryMapper;
     
@@ -40,22 +48,37 @@ public class MyBatisUserRepository implements UserRepository {
         return userMapper.selectByEmail(email);
     }
     
+    @Override
+    public User findByEmailForUpdate(String email) {
+        return userMapper.selectByEmailForUpdate(email);
+    }
+    
+    @Override
+    public User insert(User user) {
+        if (user.getUuid() == null) {
+            // needed for the user_activity row
+            user.setUuid(UUID.randomUUID());
+        }
+        userMapper.insertSelective(user);
+        userActivityMapper.insert(user.getUuid());
+        return user;
+    }
+    
+    @Override
+    public boolean update(User user) {
+        return userMapper.updateByPrimaryKeySelective(user) > 0;
+    }
+    
     @Override
     public User save(User user) {
         if (user.getUuid() == null) {
-            // Insert new user
-            userMapper.insert(user);
-        } else {
-            // Check if user exists - if not, insert instead of update
-            User existingUser = userMapper.selectByPrimaryKey(user.getUuid());
-            if (existingUser == null) {
-                // User doesn't exist - insert it
-                userMapper.insertSelective(user);
-            } else {
-                // Update existing user
-                userMapper.updateByPrimaryKeySelective(user);
-            }
+            // new uuid, nothing to conflict with
+            return insert(user);
         }
+        // INSERT ... ON CONFLICT (uuid) DO UPDATE, no existence check round trip;
+        // the insert row is checked for NOT NULL first, so the user must be complete
+        userMapper.upsertSelective(user);
+        userActivityMapper.insertIfAbsent(user.getUuid());
         return user;
     }
     
@@ -64,6 +87,42 @@ public class MyBatisUserRepository implements UserRepository {
         userMapper.deleteByPrimaryKey(uuid);
     }
     
+    @Override
+    public boolean updatePasswordHash(UUID uuid, String expectedHash, String newHash) {
+        return userMapper.updatePasswordHashIfUnchanged(uuid, expectedHash, newHash) > 0;
+    }
+    
+    @Override
+    public boolean updateLastActive(UUID uuid, Date lastActive) {
+        return userActivityMapper.upsertLastActive(uuid, lastActive) > 0;
+    }
+    
+    @Override
+    public int updateLastActiveBatch(Map<UUID, Date> lastActive) {
+        if (lastActive == null || lastActive.isEmpty()) {
+            return 0;
+        }
+        return userActivityMapper.upsertLastActiveBatch(lastActive);
+    }
+    
+    @Override
+    public boolean recordLogin(UUID uuid, Date loginTime) {
+        if (userActivityMapper.updateLogin(uuid, loginTime) > 0) {
+            return true;
+        }
+        // registered by the previous version during a rollout (see V10): no activity row yet
+        userActivityMapper.insertIfAbsent(uuid);
+        return userActivityMapper.updateLogin(uuid, loginTime) > 0;
+    }
+    
+    @Override
+    public List<UserStatusChange> updateStatuses(List<UUID> uuids, int newStatus) {
+        if (uuids == null || uuids.isEmpty()) {
+            return List.of();
+        }
+        return userMapper.updateStatusByUuids(uuids.toArray(new UUID[0]), newStatus);
+    }
+    
     @Override
     public User findUserWithLibrary(UUID userId) {
         User user = userMapper.selectByPrimaryKey(userId);
@@ -89,11 +148,21 @@ public class MyBatisUserRepository implements UserRepository {
         return userMapper.selectUsersForAdmin(filter, offset);
     }
     
+    @Override
+    public List<User> findUsersForAdminAfter(AdminUserFilterDTO filter, UserCursor cursor, int limit) {
+        return userMapper.selectUsersForAdminAfter(filter, cursor, limit);
+    }
+    
     @Override
     public long countUsersForAdmin(AdminUserFilterDTO filter) {
         return userMapper.countUsersForAdmin(filter);
     }
     
+    @Override
+    public List<UUID> findBlockedUserIds() {
+        return userMapper.selectBlockedUserIds();
+    }
+    
     @Override
     public List<User> findAllUsersForRanking() {
         return userMapper.selectAllUsersForRanking();
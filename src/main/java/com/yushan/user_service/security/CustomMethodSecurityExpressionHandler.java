@@ -4,21 +4,44 @@ import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.expression.BeanResolver;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
 import org.springframework.security.core.Authentication;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Custom Method Security Expression Handler
  * 
  * This class provides custom expression evaluation for method-level security
  * by using our custom SecurityExpressionRoot
+ * 
+ * Per-invocation work is kept to the evaluation context itself:
+ * - one shared parser with the SpEL compiler enabled, so the expressions Spring Security
+ *   parses (and caches per method) are compiled to bytecode after a few evaluations
+ * - parameter names are reflected once per Method
+ * - one BeanFactoryResolver for @bean references
  */
 public class CustomMethodSecurityExpressionHandler implements MethodSecurityExpressionHandler, BeanFactoryAware {
 
-    private BeanFactory beanFactory;
+    // MIXED: compile once the expression has run, fall back to interpretation if compiled code fails
+    private final ExpressionParser expressionParser = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.MIXED, CustomMethodSecurityExpressionHandler.class.getClassLoader()));
+
+    private final Map<Method, String[]> parameterNameCache = new ConcurrentHashMap<>();
+
+    private BeanResolver beanResolver;
 
     @Override
     public EvaluationContext createEvaluationContext(Authentication authentication, MethodInvocation mi) {
@@ -26,12 +49,11 @@ public class CustomMethodSecurityExpressionHandler implements MethodSecurityExpr
         root.setThis(mi.getThis());
         
         // Create evaluation context with our custom root
-        org.springframework.expression.spel.support.StandardEvaluationContext context =
-            new org.springframework.expression.spel.support.StandardEvaluationContext(root);
+        StandardEvaluationContext context = new StandardEvaluationContext(root);
 
         // Enable @bean references in SpEL (e.g., @novelGuard)
-        if (beanFactory != null) {
-            context.setBeanResolver(new BeanFactoryResolver(beanFactory));
+        if (beanResolver != null) {
+            context.setBeanResolver(beanResolver);
         }
         
         // Set method arguments for SpEL parameter resolution
@@ -46,16 +68,17 @@ public class CustomMethodSecurityExpressionHandler implements MethodSecurityExpr
     }
     
     private String[] getParameterNames(MethodInvocation mi) {
-        // Get actual parameter names from method signature
-        java.lang.reflect.Method method = mi.getMethod();
-        java.lang.reflect.Parameter[] parameters = method.getParameters();
-        String[] paramNames = new String[parameters.length];
-        
-        for (int i = 0; i < parameters.length; i++) {
-            paramNames[i] = parameters[i].getName();
-        }
-        
-        return paramNames;
+        // Get actual parameter names from method signature, reflected once per method
+        return parameterNameCache.computeIfAbsent(mi.getMethod(), method -> {
+            Parameter[] parameters = method.getParameters();
+            String[] paramNames = new String[parameters.length];
+            
+            for (int i = 0; i < parameters.length; i++) {
+                paramNames[i] = parameters[i].getName();
+            }
+            
+            return paramNames;
+        });
     }
 
     public MethodSecurityExpressionOperations createSecurityExpressionRoot(Authentication authentication, MethodInvocation mi) {
@@ -84,12 +107,12 @@ public class CustomMethodSecurityExpressionHandler implements MethodSecurityExpr
     }
 
     @Override
-    public org.springframework.expression.ExpressionParser getExpressionParser() {
-        return new org.springframework.expression.spel.standard.SpelExpressionParser();
+    public ExpressionParser getExpressionParser() {
+        return expressionParser;
     }
 
     @Override
     public void setBeanFactory(BeanFactory beanFactory) {
-        this.beanFactory = beanFactory;
+        this.beanResolver = new BeanFactoryResolver(beanFactory);
     }
 }
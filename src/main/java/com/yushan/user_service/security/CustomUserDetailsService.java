@@ -5,15 +5,12 @@ import com.yushan.user_service.entity.User;
 import com.yushan.user_service.enums.UserStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 /**
  * Custom User Details Service
@@ -102,22 +99,8 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         @Override
         public Collection<? extends GrantedAuthority> getAuthorities() {
-            List<GrantedAuthority> authorities = new ArrayList<>();
-            
-            // Add basic user authority
-            authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
-            
-            // Add author authority if user is an author
-            if (isAuthor != null && isAuthor) {
-                authorities.add(new SimpleGrantedAuthority("ROLE_AUTHOR"));
-            }
-
-            // Add admin authority if user is admin
-            if (isAdmin != null && isAdmin) {
-                authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
-            }
-            
-            return authorities;
+            // ROLE_USER plus ROLE_AUTHOR / ROLE_ADMIN; shared immutable list, no per-call allocation
+            return RoleAuthorities.forFlags(isAuthor(), isAdmin());
         }
 
         @Override
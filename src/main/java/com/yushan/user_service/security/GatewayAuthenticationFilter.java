@@ -2,14 +2,11 @@ package com.yushan.user_service.security;
 
 import com.yushan.user_service.entity.User;
 import com.yushan.user_service.repository.UserRepository;
-import com.yushan.user_service.util.HmacUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -41,11 +38,17 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
     private UserRepository userRepository;
 
     /**
-     * Shared secret for HMAC signature verification
+     * Verifies the HMAC signature against the shared secret(s)
      * Must match the secret in API Gateway
      */
-    @Value("${gateway.hmac.secret:${GATEWAY_HMAC_SECRET:yushan-gateway-hmac-secret-key-for-request-signature-2024}}")
-    private String hmacSecret;
+    @Autowired
+    private GatewaySignatureVerifier signatureVerifier;
+
+    @Autowired
+    private GatewayReplayCache replayCache;
+
+    @Autowired
+    private FilterRejectionWriter rejectionWriter;
 
     /**
      * Filter method that processes each request
@@ -74,9 +77,7 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
                 
                 // Security: Verify HMAC signature to prevent header forgery
                 if (userIdStr == null || email == null || timestampStr == null || signature == null) {
-                    logger.warn("Gateway-validated request but missing required headers (userId, email, timestamp, or signature)");
-                    response.setStatus(HttpStatus.FORBIDDEN.value());
-                    response.getWriter().write("{\"error\":\"Forbidden\",\"message\":\"Invalid gateway headers\"}");
+                    rejectionWriter.reject(request, response, FilterRejectionWriter.Reason.MISSING_GATEWAY_HEADERS, userIdStr);
                     return;
                 }
                 
@@ -84,17 +85,23 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
                     long timestamp = Long.parseLong(timestampStr);
                     
                     // Verify HMAC signature
-                    if (!HmacUtil.verifySignature(userIdStr, email, role, timestamp, signature, hmacSecret)) {
-                        logger.warn("Gateway-validated request with invalid HMAC signature from IP: " + 
-                                   request.getRemoteAddr() + " for path: " + request.getRequestURI());
-                        response.setStatus(HttpStatus.FORBIDDEN.value());
-                        response.getWriter().write("{\"error\":\"Forbidden\",\"message\":\"Invalid gateway signature\"}");
+                    if (!signatureVerifier.verify(userIdStr, email, role, timestamp, signature)) {
+                        rejectionWriter.reject(request, response, FilterRejectionWriter.Reason.INVALID_SIGNATURE, userIdStr);
+                        return;
+                    }
+                    
+                    // Each signed header set is accepted once
+                    GatewayReplayCache.Result replay = replayCache.remember(timestamp, signature);
+                    if (replay == GatewayReplayCache.Result.REPLAYED) {
+                        rejectionWriter.reject(request, response, FilterRejectionWriter.Reason.REPLAYED_SIGNATURE, userIdStr);
+                        return;
+                    }
+                    if (replay == GatewayReplayCache.Result.REJECTED_FULL) {
+                        rejectionWriter.reject(request, response, FilterRejectionWriter.Reason.REPLAY_CHECK_UNAVAILABLE, userIdStr);
                         return;
                     }
                 } catch (NumberFormatException e) {
-                    logger.warn("Invalid timestamp format in gateway headers: " + timestampStr);
-                    response.setStatus(HttpStatus.FORBIDDEN.value());
-                    response.getWriter().write("{\"error\":\"Forbidden\",\"message\":\"Invalid timestamp format\"}");
+                    rejectionWriter.reject(request, response, FilterRejectionWriter.Reason.INVALID_TIMESTAMP, timestampStr);
                     return;
                 }
                 
@@ -113,10 +120,7 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
                         // Check if user is enabled (not suspended/banned) - same as JwtAuthenticationFilter
                         if (!userDetails.isEnabled()) {
                             // User is disabled, reject request with 403 Forbidden
-                            logger.warn("Gateway-validated request but user is disabled (status: " + user.getStatus() + ") for user: " + userIdStr + " from IP: " + request.getRemoteAddr() + " for path: " + request.getRequestURI());
-                            response.setStatus(HttpStatus.FORBIDDEN.value());
-                            response.setContentType("application/json");
-                            response.getWriter().write("{\"error\":\"Forbidden\",\"message\":\"User account is disabled or suspended\",\"status\":403}");
+                            rejectionWriter.reject(request, response, FilterRejectionWriter.Reason.USER_DISABLED, userIdStr);
                             return;
                         }
                         
@@ -139,10 +143,7 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
                         logger.debug("Gateway-validated request authenticated for user: " + email + " (" + userId + ")");
                     } else {
                         // User not found, reject request with 403 Forbidden
-                        logger.warn("Gateway-validated request but user not found: " + userIdStr + " from IP: " + request.getRemoteAddr() + " for path: " + request.getRequestURI());
-                        response.setStatus(HttpStatus.FORBIDDEN.value());
-                        response.setContentType("application/json");
-                        response.getWriter().write("{\"error\":\"Forbidden\",\"message\":\"User account not found\",\"status\":403}");
+                        rejectionWriter.reject(request, response, FilterRejectionWriter.Reason.USER_NOT_FOUND, userIdStr);
                         return;
                     }
                 } catch (IllegalArgumentException e) {
@@ -0,0 +1,208 @@
+package com.yushan.user_service.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Replay cache for gateway-signed header sets
+ *
+ * Entries are grouped into one-minute buckets by the signed timestamp, held in a small
+ * ring: a bucket is replaced as soon as its slot is needed for a newer minute, so nothing
+ * outlives the tolerance window for long and no cleanup thread is needed. Each bucket is
+ * split into lock-striped segments, so there is no global lock on the request path.
+ *
+ * The key is the decoded MAC, not the header string: the Base64 decoder ignores unused
+ * low bits and missing padding, so several spellings of one signature verify, and they
+ * must all count as the same use. Only the first 8 bytes are kept (one long per entry).
+ * HMAC output is uniform, so two different header sets share a key with probability
+ * about n^2 / 2^65 for n entries in a minute, which is negligible.
+ *
+ * Only header sets whose HMAC has been verified are stored, and each may be used once.
+ * Capacity is per minute of signed timestamps. When a minute is full the overflow is
+ * counted and logged once; new sets are then accepted untracked (fail open) or, with
+ * gateway.hmac.replay.fail-closed, rejected until the next minute.
+ *
+ * False positives: the signed tuple is (user, email, role, millisecond timestamp), so two
+ * legitimate requests of the same user signed by the gateway in the same millisecond are
+ * identical and the second one is rejected as a replay (403). The gateway has to keep
+ * its timestamps unique per user (or the client retries) until it signs a nonce.
+ */
+@Slf4j
+@Component
+public class GatewayReplayCache {
+
+    private static final long BUCKET_WIDTH_MS = 60 * 1000;
+    // 11 minutes are live at once (+-5 around now); 16 slots keep them from sharing a slot
+    private static final int RING_SIZE = 16;
+    private static final int SEGMENTS = 64;
+
+    public enum Result {
+        /** First use, now tracked */
+        ACCEPTED,
+        /** Already used */
+        REPLAYED,
+        /** Not tracked: the minute is full (fail open) or already out of the window */
+        UNTRACKED,
+        /** The minute is full and fail-closed is on */
+        REJECTED_FULL
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 2M per minute is about 33k requests per second; a full minute takes up to 32 MB
+    @Value("${gateway.hmac.replay.max-entries-per-minute:2000000}")
+    private int maxEntriesPerMinute;
+
+    @Value("${gateway.hmac.replay.fail-closed:false}")
+    private boolean failClosed;
+
+    private final AtomicReferenceArray<Bucket> ring = new AtomicReferenceArray<>(RING_SIZE);
+
+    private int segmentCapacity;
+
+    private Counter replays;
+
+    private Counter overflows;
+
+    @PostConstruct
+    public void init() {
+        segmentCapacity = Math.max(1, (maxEntriesPerMinute + SEGMENTS - 1) / SEGMENTS);
+        replays = meterRegistry.counter("gateway.replay.cache", "result", "replay");
+        overflows = meterRegistry.counter("gateway.replay.cache", "result", "overflow");
+    }
+
+    /**
+     * Record the use of a header set whose signature was just verified
+     *
+     * @param timestamp signed timestamp
+     * @param signature Base64 signature header, already verified
+     * @return ACCEPTED on first use, REPLAYED if already used
+     */
+    public Result remember(long timestamp, String signature) {
+        Bucket bucket = bucket(timestamp);
+        if (bucket == null) {
+            return Result.UNTRACKED;
+        }
+        long key = key(Base64.getDecoder().decode(signature));
+        Segment segment = bucket.segments[(int) (key >>> 58)];
+        switch (segment.add(key)) {
+            case Segment.ADDED:
+                return Result.ACCEPTED;
+            case Segment.DUPLICATE:
+                replays.increment();
+                return Result.REPLAYED;
+            default:
+                overflows.increment();
+                if (bucket.overflowLogged.compareAndSet(false, true)) {
+                    log.warn("Gateway replay cache is full for the minute starting at {} ({} per minute), {} new signatures",
+                            bucket.epoch * BUCKET_WIDTH_MS, maxEntriesPerMinute, failClosed ? "rejecting" : "not tracking");
+                }
+                return failClosed ? Result.REJECTED_FULL : Result.UNTRACKED;
+        }
+    }
+
+    // first 8 bytes of the MAC; 0 marks an empty slot
+    private static long key(byte[] mac) {
+        long key = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            key = (key << 8) | (mac[i] & 0xFF);
+        }
+        return key == 0 ? 1 : key;
+    }
+
+    private Bucket bucket(long timestamp) {
+        long epoch = Math.floorDiv(timestamp, BUCKET_WIDTH_MS);
+        int slot = (int) Math.floorMod(epoch, (long) RING_SIZE);
+        while (true) {
+            Bucket current = ring.get(slot);
+            if (current != null && current.epoch == epoch) {
+                return current;
+            }
+            // slot holds a newer minute: this timestamp is far outside the window
+            if (current != null && current.epoch > epoch) {
+                return null;
+            }
+            Bucket fresh = new Bucket(epoch, segmentCapacity);
+            if (ring.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final Segment[] segments = new Segment[SEGMENTS];
+        private final AtomicBoolean overflowLogged = new AtomicBoolean();
+
+        Bucket(long epoch, int segmentCapacity) {
+            this.epoch = epoch;
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new Segment(segmentCapacity);
+            }
+        }
+    }
+
+    /**
+     * Open-addressing set of longs, grown on demand up to its capacity
+     */
+    private static final class Segment {
+        static final int ADDED = 0;
+        static final int DUPLICATE = 1;
+        static final int FULL = 2;
+
+        private final int capacity;
+        private long[] table = new long[16];
+        private int size;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized int add(long key) {
+            int slot = find(table, key);
+            if (table[slot] == key) {
+                return DUPLICATE;
+            }
+            if (size >= capacity) {
+                return FULL;
+            }
+            table[slot] = key;
+            size++;
+            // keep the load factor at or below 1/2
+            if (size * 2 > table.length) {
+                grow();
+            }
+            return ADDED;
+        }
+
+        private void grow() {
+            long[] larger = new long[table.length * 2];
+            for (long key : table) {
+                if (key != 0) {
+                    larger[find(larger, key)] = key;
+                }
+            }
+            table = larger;
+        }
+
+        // slot holding the key, or the empty slot where it belongs
+        private static int find(long[] table, long key) {
+            int mask = table.length - 1;
+            int slot = (int) key & mask;
+            while (table[slot] != 0 && table[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
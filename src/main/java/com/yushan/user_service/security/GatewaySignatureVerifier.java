@@ -0,0 +1,234 @@
+package com.yushan.user_service.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Verifies the HMAC signature the API Gateway puts on forwarded requests
+ *
+ * Signed message: userId|email|role|timestamp (role defaults to USER), HmacSHA256, Base64.
+ *
+ * Per request this avoids Mac.getInstance, SecretKeySpec and String.format:
+ * each thread keeps initialized Mac instances and reusable message/digest buffers.
+ * Signatures are compared as raw bytes in constant time.
+ *
+ * Keys rotate without a restart: the current secret (gateway.hmac.secret) and any
+ * previous ones still accepted during rollout (gateway.hmac.previous-secrets) are
+ * reloaded when the environment is refreshed.
+ */
+@Slf4j
+@Component
+public class GatewaySignatureVerifier {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int HMAC_LENGTH = 32;
+    private static final long TIMESTAMP_TOLERANCE_MS = 5 * 60 * 1000; // 5 minutes
+
+    private static final String SECRET_PLACEHOLDER =
+            "${gateway.hmac.secret:${GATEWAY_HMAC_SECRET:yushan-gateway-hmac-secret-key-for-request-signature-2024}}";
+    private static final String PREVIOUS_SECRETS_PROPERTY = "gateway.hmac.previous-secrets";
+
+    @Autowired
+    private Environment environment;
+
+    private volatile KeyRing keyRing;
+
+    private final ThreadLocal<ThreadState> threadState = new ThreadLocal<>();
+
+    @PostConstruct
+    public void init() {
+        reloadKeys();
+    }
+
+    /**
+     * Pick up rotated secrets after a config refresh
+     */
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        boolean hmacChanged = event.getKeys().stream()
+                .anyMatch(key -> key.startsWith("gateway.hmac") || key.equals("GATEWAY_HMAC_SECRET"));
+        if (hmacChanged) {
+            reloadKeys();
+        }
+    }
+
+    /**
+     * Rebuild the key ring from the environment; threads re-initialize their Mac instances lazily
+     */
+    public void reloadKeys() {
+        List<byte[]> secrets = new ArrayList<>();
+        secrets.add(environment.resolvePlaceholders(SECRET_PLACEHOLDER).getBytes(StandardCharsets.UTF_8));
+
+        String previous = environment.getProperty(PREVIOUS_SECRETS_PROPERTY, "");
+        for (String secret : previous.split(",")) {
+            if (!secret.isBlank()) {
+                secrets.add(secret.trim().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        KeyRing current = keyRing;
+        int generation = current == null ? 0 : current.generation() + 1;
+        keyRing = new KeyRing(generation, secrets.toArray(new byte[0][]));
+        log.info("Loaded {} gateway HMAC secret(s), generation {}", secrets.size(), generation);
+    }
+
+    /**
+     * Verify gateway headers against the current or any previous secret
+     *
+     * @param userId User ID
+     * @param email User email
+     * @param role User role (null means USER)
+     * @param timestamp Request timestamp (milliseconds)
+     * @param signature Base64 signature from X-Gateway-Signature
+     * @return true if the timestamp is within tolerance and the signature matches
+     */
+    public boolean verify(String userId, String email, String role, long timestamp, String signature) {
+        if (Math.abs(System.currentTimeMillis() - timestamp) > TIMESTAMP_TOLERANCE_MS) {
+            return false;
+        }
+        if (userId == null || email == null || signature == null) {
+            return false;
+        }
+
+        byte[] provided;
+        try {
+            provided = Base64.getDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (provided.length != HMAC_LENGTH) {
+            return false;
+        }
+
+        ThreadState state = currentThreadState();
+        int length = state.writeMessage(userId, email, role != null ? role : "USER", timestamp);
+        try {
+            for (Mac mac : state.macs) {
+                mac.update(state.message, 0, length);
+                mac.doFinal(state.digest, 0);
+                if (MessageDigest.isEqual(state.digest, provided)) {
+                    return true;
+                }
+            }
+        } catch (ShortBufferException e) {
+            log.error("HMAC output buffer too small", e);
+        }
+        return false;
+    }
+
+    private ThreadState currentThreadState() {
+        KeyRing ring = keyRing;
+        ThreadState state = threadState.get();
+        if (state == null || state.generation != ring.generation()) {
+            state = new ThreadState(ring);
+            threadState.set(state);
+        }
+        return state;
+    }
+
+    private record KeyRing(int generation, byte[][] secrets) {
+    }
+
+    /**
+     * Per-thread Mac instances (one per accepted secret) and scratch buffers
+     */
+    private static final class ThreadState {
+        private final int generation;
+        private final Mac[] macs;
+        private final byte[] digest = new byte[HMAC_LENGTH];
+        private byte[] message = new byte[256];
+
+        ThreadState(KeyRing ring) {
+            this.generation = ring.generation();
+            this.macs = new Mac[ring.secrets().length];
+            try {
+                for (int i = 0; i < macs.length; i++) {
+                    macs[i] = Mac.getInstance(HMAC_ALGORITHM);
+                    macs[i].init(new SecretKeySpec(ring.secrets()[i], HMAC_ALGORITHM));
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize " + HMAC_ALGORITHM, e);
+            }
+        }
+
+        /**
+         * Write userId|email|role|timestamp as UTF-8 into the reusable buffer
+         * @return number of bytes written
+         */
+        int writeMessage(String userId, String email, String role, long timestamp) {
+            int pos = 0;
+            pos = writeString(userId, pos);
+            pos = writeByte((byte) '|', pos);
+            pos = writeString(email, pos);
+            pos = writeByte((byte) '|', pos);
+            pos = writeString(role, pos);
+            pos = writeByte((byte) '|', pos);
+            return writeLong(timestamp, pos);
+        }
+
+        private int writeString(String value, int pos) {
+            int length = value.length();
+            ensureCapacity(pos + length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    // rare non-ASCII header value: fall back to the JDK encoder
+                    byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                    ensureCapacity(pos - i + encoded.length);
+                    System.arraycopy(encoded, 0, message, pos - i, encoded.length);
+                    return pos - i + encoded.length;
+                }
+                message[pos++] = (byte) c;
+            }
+            return pos;
+        }
+
+        private int writeByte(byte value, int pos) {
+            ensureCapacity(pos + 1);
+            message[pos] = value;
+            return pos + 1;
+        }
+
+        private int writeLong(long value, int pos) {
+            if (value < 0) {
+                pos = writeByte((byte) '-', pos);
+                value = -value;
+            }
+            ensureCapacity(pos + 20);
+            int start = pos;
+            do {
+                message[pos++] = (byte) ('0' + (value % 10));
+                value /= 10;
+            } while (value > 0);
+            // digits were written least significant first
+            for (int i = start, j = pos - 1; i < j; i++, j--) {
+                byte tmp = message[i];
+                message[i] = message[j];
+                message[j] = tmp;
+            }
+            return pos;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > message.length) {
+                message = Arrays.copyOf(message, Math.max(required, message.length * 2));
+            }
+        }
+    }
+}
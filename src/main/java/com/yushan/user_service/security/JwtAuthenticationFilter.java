@@ -8,7 +8,6 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -37,6 +36,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private FilterRejectionWriter rejectionWriter;
+
     /**
      * Filter method that processes each request
      * 
@@ -71,10 +73,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         // 5.5. Check if user is enabled (not suspended/banned)
                         if (!userDetails.isEnabled()) {
                             // User is disabled, reject request with 403 Forbidden
-                            logger.warn("JWT-validated request but user is disabled (status: " + user.getStatus() + ") for email: " + email);
-                            response.setStatus(HttpStatus.FORBIDDEN.value());
-                            response.setContentType("application/json");
-                            response.getWriter().write("{\"error\":\"Forbidden\",\"message\":\"User account is disabled or suspended\",\"status\":403}");
+                            rejectionWriter.reject(request, response, FilterRejectionWriter.Reason.USER_DISABLED, email);
                             return;
                         }
                         
@@ -0,0 +1,84 @@
+package com.yushan.user_service.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Shared, immutable authority sets and role bitmasks
+ *
+ * Every user has ROLE_USER; ROLE_AUTHOR and ROLE_ADMIN are optional, so there are
+ * exactly four authority lists. They are built once and handed out by reference,
+ * and role checks compare bits instead of authority strings.
+ */
+final class RoleAuthorities {
+
+    static final String ROLE_USER = "ROLE_USER";
+    static final String ROLE_AUTHOR = "ROLE_AUTHOR";
+    static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+    static final int USER = 1;
+    static final int AUTHOR = 1 << 1;
+    static final int ADMIN = 1 << 2;
+
+    private static final GrantedAuthority USER_AUTHORITY = new SimpleGrantedAuthority(ROLE_USER);
+    private static final GrantedAuthority AUTHOR_AUTHORITY = new SimpleGrantedAuthority(ROLE_AUTHOR);
+    private static final GrantedAuthority ADMIN_AUTHORITY = new SimpleGrantedAuthority(ROLE_ADMIN);
+
+    // index: bit 0 = author, bit 1 = admin
+    private static final List<List<GrantedAuthority>> AUTHORITY_SETS = List.of(
+            List.of(USER_AUTHORITY),
+            List.of(USER_AUTHORITY, AUTHOR_AUTHORITY),
+            List.of(USER_AUTHORITY, ADMIN_AUTHORITY),
+            List.of(USER_AUTHORITY, AUTHOR_AUTHORITY, ADMIN_AUTHORITY)
+    );
+
+    private RoleAuthorities() {
+    }
+
+    static List<GrantedAuthority> forFlags(boolean author, boolean admin) {
+        return AUTHORITY_SETS.get((author ? 1 : 0) | (admin ? 2 : 0));
+    }
+
+    /**
+     * Bit for a full authority name (ROLE_USER, ...), 0 if it is not one of the known roles
+     */
+    static int bitOfAuthority(String authority) {
+        if (authority == null) {
+            return 0;
+        }
+        return switch (authority) {
+            case ROLE_USER -> USER;
+            case ROLE_AUTHOR -> AUTHOR;
+            case ROLE_ADMIN -> ADMIN;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Bit for a role name without prefix (USER, ...), 0 if it is not one of the known roles
+     */
+    static int bitOfRole(String role) {
+        if (role == null) {
+            return 0;
+        }
+        return switch (role) {
+            case "USER" -> USER;
+            case "AUTHOR" -> AUTHOR;
+            case "ADMIN" -> ADMIN;
+            default -> 0;
+        };
+    }
+
+    static int maskOf(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        if (authorities != null) {
+            for (GrantedAuthority authority : authorities) {
+                mask |= bitOfAuthority(authority.getAuthority());
+            }
+        }
+        return mask;
+    }
+}
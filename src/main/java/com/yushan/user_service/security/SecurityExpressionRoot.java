@@ -1,9 +1,10 @@
 package com.yushan.user_service.security;
 
 import com.yushan.user_service.security.CustomUserDetailsService.CustomUserDetails;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 
 /**
  * Custom Security Expression Root for method-level security
@@ -14,57 +15,70 @@ import org.springframework.security.core.Authentication;
 public class SecurityExpressionRoot implements MethodSecurityExpressionOperations {
 
     private final Authentication authentication;
+    // RoleAuthorities bits of the granted authorities, resolved once per evaluation
+    private final int roleMask;
     private Object filterObject;
     private Object returnObject;
     private Object target;
 
+    // the authentication is only read; it lives for a single expression evaluation, so no defensive copy
+    @SuppressFBWarnings({"EI_EXPOSE_REP2"})
     public SecurityExpressionRoot(Authentication authentication) {
-        this.authentication = copyAuthentication(authentication);
+        this.authentication = authentication;
+        this.roleMask = authentication != null ? RoleAuthorities.maskOf(authentication.getAuthorities()) : 0;
     }
 
     @Override
+    @SuppressFBWarnings({"EI_EXPOSE_REP"})
     public Authentication getAuthentication() {
-        return copyAuthentication(authentication);
-    }
-
-    private static Authentication copyAuthentication(Authentication source) {
-        if (source == null) {
-            return null;
-        }
-        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
-            source.getPrincipal(),
-            null,
-            source.getAuthorities()
-        );
-        token.setDetails(source.getDetails());
-        return token;
+        return authentication;
     }
 
     @Override
     public boolean hasAuthority(String authority) {
-        return authentication != null && authentication.getAuthorities().stream()
-            .anyMatch(auth -> auth.getAuthority().equals(authority));
+        if (authentication == null) {
+            return false;
+        }
+        int bit = RoleAuthorities.bitOfAuthority(authority);
+        if (bit != 0) {
+            return (roleMask & bit) != 0;
+        }
+        for (GrantedAuthority granted : authentication.getAuthorities()) {
+            if (granted.getAuthority().equals(authority)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public boolean hasAnyAuthority(String... authorities) {
         if (authentication == null) return false;
-        return authentication.getAuthorities().stream()
-            .anyMatch(auth -> java.util.Arrays.asList(authorities).contains(auth.getAuthority()));
+        for (String authority : authorities) {
+            if (hasAuthority(authority)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public boolean hasRole(String role) {
+        int bit = RoleAuthorities.bitOfRole(role);
+        if (bit != 0) {
+            return authentication != null && (roleMask & bit) != 0;
+        }
         return hasAuthority("ROLE_" + role);
     }
 
     @Override
     public boolean hasAnyRole(String... roles) {
-        String[] roleAuthorities = new String[roles.length];
-        for (int i = 0; i < roles.length; i++) {
-            roleAuthorities[i] = "ROLE_" + roles[i];
+        for (String role : roles) {
+            if (hasRole(role)) {
+                return true;
+            }
         }
-        return hasAnyAuthority(roleAuthorities);
+        return false;
     }
 
     @Override
@@ -2,9 +2,12 @@ package com.yushan.user_service.service;
 
 import com.yushan.user_service.repository.UserRepository;
 import com.yushan.user_service.dto.AdminUserFilterDTO;
+import com.yushan.user_service.dto.CursorPageResponseDTO;
 import com.yushan.user_service.dto.PageResponseDTO;
+import com.yushan.user_service.dto.UserCursor;
 import com.yushan.user_service.dto.UserProfileResponseDTO;
 import com.yushan.user_service.entity.User;
+import com.yushan.user_service.entity.UserStatusChange;
 import com.yushan.user_service.enums.Gender;
 import com.yushan.user_service.enums.UserStatus;
 import com.yushan.user_service.event.UserStatusEventProducer;
@@ -16,7 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -37,16 +40,23 @@ public class AdminService {
     @Autowired
     private UserStatusEventProducer userStatusEventProducer;
 
+    @Autowired
+    private BlockedUserIndex blockedUserIndex;
+
+    @Autowired
+    private UserCounterService userCounterService;
+
     /**
      * Promote user to admin by email
      */
+    @Transactional
     public UserProfileResponseDTO promoteToAdmin(String email) {
         if (email == null || email.trim().isEmpty()) {
             throw new IllegalArgumentException("Email is required");
         }
 
-        // Find user by email
-        User user = userRepository.findByEmail(email.trim().toLowerCase(java.util.Locale.ROOT));
+        // Find and lock the user: the counter bucket read here must still hold at the update
+        User user = userRepository.findByEmailForUpdate(email.trim().toLowerCase(java.util.Locale.ROOT));
         if (user == null) {
             throw new IllegalArgumentException("User not found with email: " + email);
         }
@@ -57,8 +67,10 @@ public class AdminService {
         }
 
         // Update user to admin
+        UserCounterService.Bucket before = UserCounterService.Bucket.of(user);
         user.promoteToAdmin();
-        userRepository.save(user);
+        userRepository.update(user);
+        userCounterService.recordMoved(before, UserCounterService.Bucket.of(user));
 
         // Return updated user profile
         return userService.getUserProfile(user.getUuid());
@@ -66,7 +78,8 @@ public class AdminService {
 
     public PageResponseDTO<UserProfileResponseDTO> listUsers(AdminUserFilterDTO filter) {
         int offset = filter.getPage() * filter.getSize();
-        long totalElements = userRepository.countUsersForAdmin(filter);
+        // maintained counters instead of COUNT(*) over users
+        long totalElements = userCounterService.count(filter);
 
         List<User> users = userRepository.findUsersForAdmin(filter, offset);
 
@@ -77,54 +90,115 @@ public class AdminService {
         return new PageResponseDTO<>(userProfiles, totalElements, filter.getPage(), filter.getSize());
     }
 
+    /**
+     * Keyset-paginated user listing: cost per page does not grow with depth
+     * 
+     * @param filter filters, sort order and page size (page is ignored)
+     * @param cursor nextCursor from the previous page, null for the first page
+     * @return one page and the cursor for the next one
+     */
+    public CursorPageResponseDTO<UserProfileResponseDTO> scrollUsers(AdminUserFilterDTO filter, String cursor) {
+        int size = filter.getSize() > 0 ? filter.getSize() : 20;
+
+        // one extra row tells whether another page exists
+        List<User> users = userRepository.findUsersForAdminAfter(filter, UserCursor.decode(cursor), size + 1);
+        boolean hasNext = users.size() > size;
+        if (hasNext) {
+            users = users.subList(0, size);
+        }
+
+        List<UserProfileResponseDTO> userProfiles = users.stream()
+                .map(this::mapToProfileResponse)
+                .collect(Collectors.toList());
+        String nextCursor = hasNext ? UserCursor.after(users.get(users.size() - 1)).encode() : null;
+
+        return new CursorPageResponseDTO<>(userProfiles, size, nextCursor);
+    }
+
     /**
      * Get list of blocked user IDs (SUSPENDED or BANNED)
      * Used by API Gateway to bootstrap user blocklist
      */
     public List<UUID> getBlockedUserIds() {
-        List<UUID> blockedUserIds = new ArrayList<>();
-        
-        // Get SUSPENDED users
-        AdminUserFilterDTO suspendedFilter = new AdminUserFilterDTO(0, Integer.MAX_VALUE, UserStatus.SUSPENDED, null, null, "createTime", "asc");
-        List<User> suspendedUsers = userRepository.findUsersForAdmin(suspendedFilter, 0);
-        blockedUserIds.addAll(suspendedUsers.stream().map(User::getUuid).collect(Collectors.toList()));
-        
-        // Get BANNED users
-        AdminUserFilterDTO bannedFilter = new AdminUserFilterDTO(0, Integer.MAX_VALUE, UserStatus.BANNED, null, null, "createTime", "asc");
-        List<User> bannedUsers = userRepository.findUsersForAdmin(bannedFilter, 0);
-        blockedUserIds.addAll(bannedUsers.stream().map(User::getUuid).collect(Collectors.toList()));
-        
-        return blockedUserIds;
+        return blockedUserIndex.snapshot();
     }
 
+    /**
+     * Set the status of one user
+     * 
+     * Uses the same locked UPDATE ... RETURNING as the bulk path, so the previous status
+     * (and counter bucket) comes from the row being updated; concurrent changes of the
+     * same user are serialized and each moves the counters from the state it replaced.
+     * A user that already has the status is left alone and nothing is published.
+     */
     @Transactional
     public void updateUserStatus(UUID userUuid, UserStatus newStatus) {
-        User user = userRepository.findById(userUuid);
-        if (user == null) {
-            throw new ResourceNotFoundException("User not found with UUID: " + userUuid);
+        List<UserStatusChange> changes = userRepository.updateStatuses(List.of(userUuid), newStatus.getCode());
+        if (changes.isEmpty()) {
+            if (userRepository.findById(userUuid) == null) {
+                throw new ResourceNotFoundException("User not found with UUID: " + userUuid);
+            }
+            return;
         }
 
-        UserStatus oldStatus = UserStatus.fromCode(user.getStatus());
+        UserStatusChange change = changes.get(0);
+        UserStatus oldStatus = UserStatus.fromCode(change.getOldStatus());
+        UserCounterService.Bucket before =
+                UserCounterService.Bucket.of(change.getOldStatus(), change.getIsAuthor(), change.getIsAdmin());
+        userCounterService.recordMoved(before, before.withStatus(newStatus));
         
-        User userToUpdate = new User();
-        userToUpdate.setUuid(userUuid);
-        userToUpdate.changeStatus(newStatus);
-        userToUpdate.setUpdateTime(new Date());
+        // Queue the event in the outbox and the flip in the blocked-user log; this instance
+        // picks the flip up as soon as the status is committed, the others on their next poll
+        UserStatusChangedEvent event = new UserStatusChangedEvent(
+            userUuid.toString(),
+            oldStatus != null ? oldStatus.name() : null,
+            newStatus.name()
+        );
+        userStatusEventProducer.sendUserStatusChangedEvent(event);
+        blockedUserIndex.recordChanges(changes, newStatus);
+        transactionAwareKafkaPublisher.publishAfterCommit(blockedUserIndex::poll);
+    }
 
-        userRepository.save(userToUpdate);
-        
-        // Publish UserStatusChangedEvent AFTER transaction commit
-        final UUID finalUserUuid = userUuid;
-        final UserStatus finalOldStatus = oldStatus;
-        final UserStatus finalNewStatus = newStatus;
-        transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-            UserStatusChangedEvent event = new UserStatusChangedEvent(
-                finalUserUuid.toString(),
-                finalOldStatus != null ? finalOldStatus.name() : null,
-                finalNewStatus.name()
-            );
-            userStatusEventProducer.sendUserStatusChangedEvent(event);
-        });
+    /**
+     * Set the status of many users with one UPDATE
+     * 
+     * Users that do not exist or already have the status are skipped. Counters and
+     * the UserStatusChangedEvents (one outbox insert) and the blocked-user change log
+     * are written in the same transaction; the local index is refreshed after commit.
+     * 
+     * @param userUuids users to update
+     * @param newStatus target status
+     * @return UUIDs of the users whose status changed
+     */
+    @Transactional
+    public List<UUID> updateUserStatuses(List<UUID> userUuids, UserStatus newStatus) {
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(userUuids));
+        List<UserStatusChange> changes = userRepository.updateStatuses(distinct, newStatus.getCode());
+        if (changes.isEmpty()) {
+            return List.of();
+        }
+
+        List<UserCounterService.Bucket> before = new ArrayList<>(changes.size());
+        List<UUID> changed = new ArrayList<>(changes.size());
+        List<UserStatusChangedEvent> events = new ArrayList<>(changes.size());
+        for (UserStatusChange change : changes) {
+            before.add(UserCounterService.Bucket.of(change.getOldStatus(), change.getIsAuthor(), change.getIsAdmin()));
+
+            UserStatus oldStatus = UserStatus.fromCode(change.getOldStatus());
+            changed.add(change.getUuid());
+            events.add(new UserStatusChangedEvent(
+                change.getUuid().toString(),
+                oldStatus != null ? oldStatus.name() : null,
+                newStatus.name()
+            ));
+        }
+        userCounterService.recordStatusChanges(before, newStatus);
+        userStatusEventProducer.sendUserStatusChangedEvents(events);
+        blockedUserIndex.recordChanges(changes, newStatus);
+
+        transactionAwareKafkaPublisher.publishAfterCommit(blockedUserIndex::poll);
+        log.info("Bulk status update to {}: {} of {} users changed", newStatus, changed.size(), distinct.size());
+        return changed;
     }
 
     private UserProfileResponseDTO mapToProfileResponse(User user) {
@@ -14,9 +14,9 @@ import com.yushan.user_service.exception.ValidationException;
 import com.yushan.user_service.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Date;
 import java.util.UUID;
@@ -34,7 +34,13 @@ public class AuthService {
     private UserEventProducer userEventProducer;
 
     @Autowired
-    private TransactionAwareKafkaPublisher transactionAwareKafkaPublisher;
+    private PasswordHashService passwordHashService;
+
+    @Autowired
+    private UserCounterService userCounterService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @Value("${jwt.access-token.expiration}")
     private long accessTokenExpiration;
@@ -73,7 +79,7 @@ public class AuthService {
         // set default user profile using business logic
         user.initializeAsNew();
 
-        userRepository.save(user);
+        userRepository.insert(user);
 
         // create user library
         Library library = new Library();
@@ -81,6 +87,9 @@ public class AuthService {
         library.setUserId(user.getUuid());
 
         userRepository.saveLibrary(library);
+
+        // last: the shared counter row stays locked until commit
+        userCounterService.recordCreated(user);
         return user;
     }
 
@@ -94,20 +103,17 @@ public class AuthService {
 
         User user = register(registrationDTO);
 
-        // Publish Kafka event AFTER transaction commit
-        final User finalUser = user;
-        transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-            UserRegisteredEvent event = new UserRegisteredEvent(
-                    finalUser.getUuid(),
-                    finalUser.getUsername(),
-                    finalUser.getEmail(),
-                    finalUser.getCreateTime(),
-                    finalUser.getUpdateTime(),
-                    finalUser.getLastLogin(),
-                    finalUser.getLastActive()
-            );
-            userEventProducer.sendUserRegisteredEvent(event);
-        });
+        // Queue the event in the outbox; it is only sent if this transaction commits
+        UserRegisteredEvent event = new UserRegisteredEvent(
+                user.getUuid(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getCreateTime(),
+                user.getUpdateTime(),
+                user.getLastLogin(),
+                user.getLastActive()
+        );
+        userEventProducer.sendUserRegisteredEvent(event);
 
         // Generate JWT tokens for auto-login after registration
         String accessToken = jwtUtil.generateAccessToken(user);
@@ -129,7 +135,7 @@ public class AuthService {
      */
     public User login(String email, String password) {
         User user = userRepository.findByEmail(email);
-        if (user != null && BCrypt.checkpw(password, user.getHashPassword())) {
+        if (user != null && passwordHashService.matches(password, user.getHashPassword())) {
             // Check if user is suspended or banned
             UserStatus status = UserStatus.fromCode(user.getStatus());
             if (status == UserStatus.SUSPENDED) {
@@ -147,6 +153,9 @@ public class AuthService {
 
     /**
      * login a user and create response
+     * The password is checked before any transaction starts, so no pooled connection is
+     * held while the request waits for the hash pool; only the last-login write and the
+     * outbox insert run in a (short) transaction.
      * @param email
      * @param password
      * @return
@@ -161,7 +170,6 @@ public class AuthService {
         Date now = new Date();
         user.updateLastLogin(now);
         user.updateLastActive(now);
-        user.updateTimestamp();
 
         // Prepare user info (without sensitive data)
         UserAuthResponseDTO responseDTO = createUserResponse(user);
@@ -170,22 +178,26 @@ public class AuthService {
         responseDTO.setTokenType("Bearer");
         responseDTO.setExpiresIn(accessTokenExpiration);
 
-        userRepository.save(user);
-
-        // Publish Kafka event AFTER transaction commit (if any) or immediately
-        final User finalUser = user;
-        transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-            UserLoggedInEvent event = new UserLoggedInEvent(
-                    finalUser.getUuid(),
-                    finalUser.getUsername(),
-                    finalUser.getEmail(),
-                    finalUser.getCreateTime(),
-                    finalUser.getUpdateTime(),
-                    finalUser.getLastLogin(),
-                    finalUser.getLastActive()
-            );
+        UserLoggedInEvent event = new UserLoggedInEvent(
+                user.getUuid(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getCreateTime(),
+                user.getUpdateTime(),
+                user.getLastLogin(),
+                user.getLastActive()
+        );
+        transactionTemplate.executeWithoutResult(status -> {
+            // only the narrow user_activity row changes on login
+            userRepository.recordLogin(user.getUuid(), now);
+
+            // Queue the event in the outbox together with the last-login update
             userEventProducer.sendUserLoggedInEvent(event);
         });
+
+        // committed at this point (a rollback throws above): upgrade hashes stored with
+        // outdated parameters off the request path
+        rehashIfNeeded(user, password);
         return responseDTO;
     }
 
@@ -236,7 +248,23 @@ public class AuthService {
      * @return
      */
     private String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return passwordHashService.hash(password);
+    }
+
+    /**
+     * re-hash a just-verified password when its stored algorithm/cost differs from the target;
+     * the write only applies if the stored hash has not changed in the meantime
+     * @param user
+     * @param password
+     */
+    private void rehashIfNeeded(User user, String password) {
+        String currentHash = user.getHashPassword();
+        if (!passwordHashService.needsRehash(currentHash)) {
+            return;
+        }
+        UUID userId = user.getUuid();
+        passwordHashService.rehashInBackground(password,
+                newHash -> userRepository.updatePasswordHash(userId, currentHash, newHash));
     }
 
     /**
@@ -5,6 +5,7 @@ import com.yushan.user_service.dto.UserProfileResponseDTO;
 import com.yushan.user_service.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AuthorService {
@@ -18,16 +19,20 @@ public class AuthorService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserCounterService userCounterService;
+
     /**
      * Upgrade user to author with verification code
      */
+    @Transactional
     public UserProfileResponseDTO upgradeToAuthor(String email, String verificationCode) {
         if (email == null || email.trim().isEmpty()) {
             throw new IllegalArgumentException("Email is required");
         }
         
-        // Get user from database
-        User user = userRepository.findByEmail(email.trim().toLowerCase(java.util.Locale.ROOT));
+        // Get and lock the user: the counter bucket read here must still hold at the update
+        User user = userRepository.findByEmailForUpdate(email.trim().toLowerCase(java.util.Locale.ROOT));
         if (user == null) {
             throw new IllegalArgumentException("User not found");
         }
@@ -43,8 +48,10 @@ public class AuthorService {
         }
 
         // Update user to author
+        UserCounterService.Bucket before = UserCounterService.Bucket.of(user);
         user.upgradeToAuthor();
-        userRepository.save(user);
+        userRepository.update(user);
+        userCounterService.recordMoved(before, UserCounterService.Bucket.of(user));
         
         // Return updated user profile
         return userService.getUserProfile(user.getUuid());
@@ -0,0 +1,239 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.dao.BlockedUserChangeMapper;
+import com.yushan.user_service.dto.BlockedUsersDeltaDTO;
+import com.yushan.user_service.entity.BlockedUserChange;
+import com.yushan.user_service.entity.UserStatusChange;
+import com.yushan.user_service.enums.UserStatus;
+import com.yushan.user_service.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory copy of the blocked (SUSPENDED or BANNED) user IDs, kept in step
+ * with a change log in the database
+ *
+ * Writers append one blocked_user_changes row per membership flip in the same
+ * transaction as the status change ({@link #recordChanges}). The row's version is
+ * global, so every instance reports the same version for the same set and a gateway
+ * can poll any of them with the version it holds. Each instance loads the set once
+ * (UUID-only query), then tails the log: on a schedule, and right after its own
+ * writes commit so the writing instance serves them immediately.
+ *
+ * Changes after the load are also kept in a bounded in-memory log to answer
+ * ?sinceVersion= with a delta. A version of 0, one from before this instance loaded
+ * (or older than its in-memory log) or one from another epoch gets the full set.
+ * The epoch only changes if the database log is ever reset.
+ *
+ * Writes are rare (admin actions) and reads are small, so a single monitor is enough.
+ */
+@Slf4j
+@Service
+public class BlockedUserIndex {
+
+    static final long EPOCH = 1L;
+
+    private record Change(long version, UUID userId, boolean blocked) {
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BlockedUserChangeMapper blockedUserChangeMapper;
+
+    @Value("${blocked-users.change-log-size:10000}")
+    private int changeLogSize;
+
+    @Value("${blocked-users.poll-batch-size:1000}")
+    private int pollBatchSize;
+
+    private final Set<UUID> blocked = new HashSet<>();
+
+    private final ArrayDeque<Change> changeLog = new ArrayDeque<>();
+
+    private boolean loaded;
+
+    private long version;
+
+    // highest version no longer covered by the change log
+    private long changeLogFloor;
+
+    @PostConstruct
+    public void init() {
+        changeLogSize = Math.max(1, changeLogSize);
+        pollBatchSize = Math.max(1, pollBatchSize);
+    }
+
+    /**
+     * Load the set on startup; if the database is not reachable yet,
+     * the first read retries
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            ensureLoaded();
+        } catch (Exception e) {
+            log.warn("Could not load blocked users on startup, will retry on first request: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Append the membership flips of a status update to the shared change log
+     *
+     * Must run in the transaction that changed the statuses. Appends are serialized
+     * by a table lock held until commit, so versions become visible in order.
+     *
+     * @param changes rows changed by the update, with their previous status
+     * @param newStatus status after the update
+     */
+    public void recordChanges(List<UserStatusChange> changes, UserStatus newStatus) {
+        boolean nowBlocked = newStatus != UserStatus.NORMAL;
+        List<UUID> flipped = new ArrayList<>();
+        for (UserStatusChange change : changes) {
+            boolean wasBlocked = UserStatus.fromCode(change.getOldStatus()) != UserStatus.NORMAL;
+            if (wasBlocked != nowBlocked) {
+                flipped.add(change.getUuid());
+            }
+        }
+        if (flipped.isEmpty()) {
+            // e.g. SUSPENDED -> BANNED keeps the user blocked
+            return;
+        }
+        blockedUserChangeMapper.lockForAppend();
+        blockedUserChangeMapper.insertBatch(flipped, nowBlocked);
+    }
+
+    /**
+     * Apply changes committed since the last poll, by any instance
+     */
+    @Scheduled(fixedDelayString = "${blocked-users.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Could not read blocked user changes, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void refresh() {
+        ensureLoaded();
+        List<BlockedUserChange> rows;
+        do {
+            long from = currentVersion();
+            // read outside the monitor so a slow query does not stall gateway polls
+            rows = blockedUserChangeMapper.selectSince(from, pollBatchSize);
+            applyRows(rows);
+        } while (rows.size() == pollBatchSize);
+    }
+
+    private synchronized long currentVersion() {
+        return version;
+    }
+
+    private synchronized void applyRows(List<BlockedUserChange> rows) {
+        for (BlockedUserChange row : rows) {
+            if (row.getVersion() <= version) {
+                // applied by a concurrent refresh
+                continue;
+            }
+            boolean isBlocked = Boolean.TRUE.equals(row.getBlocked());
+            if (isBlocked) {
+                blocked.add(row.getUserUuid());
+            } else {
+                blocked.remove(row.getUserUuid());
+            }
+            // logged even if the load already saw it: callers at an older version have not
+            version = row.getVersion();
+            changeLog.addLast(new Change(version, row.getUserUuid(), isBlocked));
+        }
+        while (changeLog.size() > changeLogSize) {
+            changeLogFloor = changeLog.removeFirst().version();
+        }
+    }
+
+    /**
+     * @return all blocked user IDs
+     */
+    public synchronized List<UUID> snapshot() {
+        ensureLoaded();
+        return new ArrayList<>(blocked);
+    }
+
+    /**
+     * Changes since the given version, or the full set if they cannot be served incrementally
+     *
+     * @param callerEpoch epoch the caller's version belongs to, null if unknown
+     * @param sinceVersion version the caller holds, 0 if none
+     * @return delta (or full set) up to the current version
+     */
+    public BlockedUsersDeltaDTO changesSince(Long callerEpoch, long sinceVersion) {
+        if (sinceVersion > currentVersion()) {
+            // another instance has already applied newer changes
+            poll();
+        }
+        return delta(callerEpoch, sinceVersion);
+    }
+
+    private synchronized BlockedUsersDeltaDTO delta(Long callerEpoch, long sinceVersion) {
+        ensureLoaded();
+
+        boolean sameEpoch = callerEpoch == null || callerEpoch == EPOCH;
+        if (!sameEpoch || sinceVersion <= 0 || sinceVersion < changeLogFloor || sinceVersion > version) {
+            return new BlockedUsersDeltaDTO(EPOCH, version, true, new ArrayList<>(blocked), List.of());
+        }
+
+        // last change per user wins
+        Map<UUID, Boolean> latest = new LinkedHashMap<>();
+        for (Change change : changeLog) {
+            if (change.version() > sinceVersion) {
+                latest.put(change.userId(), change.blocked());
+            }
+        }
+
+        List<UUID> added = new ArrayList<>();
+        List<UUID> removed = new ArrayList<>();
+        latest.forEach((userId, isBlocked) -> (isBlocked ? added : removed).add(userId));
+        return new BlockedUsersDeltaDTO(EPOCH, version, false, added, removed);
+    }
+
+    /**
+     * ETag for the current state: changes whenever the set or the epoch changes
+     */
+    public synchronized String etag() {
+        ensureLoaded();
+        return "\"" + EPOCH + "-" + version + "\"";
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        // version first: the set read after it contains at least every change up to it,
+        // and later changes are applied again by the next poll (add/remove are idempotent)
+        long loadedVersion = blockedUserChangeMapper.selectMaxVersion();
+        List<UUID> ids = userRepository.findBlockedUserIds();
+        blocked.clear();
+        blocked.addAll(ids);
+        version = loadedVersion;
+        // this copy cannot produce deltas for versions before the load
+        changeLogFloor = loadedVersion;
+        loaded = true;
+        log.info("Loaded {} blocked users into index at version {}", ids.size(), loadedVersion);
+    }
+}
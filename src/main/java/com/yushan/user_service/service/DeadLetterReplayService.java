@@ -0,0 +1,149 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.config.KafkaConsumerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends dead letters back to the topic they came from
+ *
+ * Reads "&lt;topic&gt;.DLT" from the offsets committed by the previous replay, republishes
+ * each record with its original key, value and headers (the kafka_dlt-* failure headers
+ * are dropped, a new failure adds fresh ones) and commits only after Kafka acknowledged
+ * the whole batch. Replays are serialized within the instance.
+ */
+@Slf4j
+@Service
+public class DeadLetterReplayService {
+
+    private static final String DLT_HEADER_PREFIX = "kafka_dlt-";
+
+    private static final int MAX_RECORDS_PER_CALL = 10000;
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    @Autowired
+    @Qualifier("deadLetterConsumerFactory")
+    private ConsumerFactory<String, byte[]> deadLetterConsumerFactory;
+
+    @Autowired
+    @Qualifier("deadLetterKafkaTemplate")
+    private KafkaTemplate<String, Object> deadLetterKafkaTemplate;
+
+    // topics whose dead letters may be replayed
+    @Value("${kafka.consumer.dead-letter.replayable-topics:active}")
+    private Set<String> replayableTopics;
+
+    @Value("${kafka.consumer.dead-letter.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    /**
+     * Replay up to maxRecords dead letters of a topic
+     *
+     * @param topic original topic, e.g. "active"
+     * @param maxRecords upper bound on records replayed in this call
+     * @return number of records sent back to the topic
+     */
+    public synchronized int replay(String topic, int maxRecords) {
+        if (!replayableTopics.contains(topic)) {
+            throw new IllegalArgumentException("Dead letters of topic " + topic + " cannot be replayed");
+        }
+        if (maxRecords < 1 || maxRecords > MAX_RECORDS_PER_CALL) {
+            throw new IllegalArgumentException("maxRecords must be between 1 and " + MAX_RECORDS_PER_CALL);
+        }
+
+        String deadLetterTopic = topic + KafkaConsumerConfig.DEAD_LETTER_SUFFIX;
+        try (Consumer<String, byte[]> consumer = deadLetterConsumerFactory.createConsumer()) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            List<PartitionInfo> infos = consumer.partitionsFor(deadLetterTopic);
+            if (infos != null) {
+                for (PartitionInfo info : infos) {
+                    partitions.add(new TopicPartition(deadLetterTopic, info.partition()));
+                }
+            }
+            if (partitions.isEmpty()) {
+                return 0;
+            }
+            // assign instead of subscribe: no group rebalance, offsets still stored under the replay group
+            consumer.assign(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.copyOf(partitions));
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata offset = committed.get(partition);
+                if (offset != null) {
+                    consumer.seek(partition, offset.offset());
+                } else {
+                    consumer.seekToBeginning(List.of(partition));
+                }
+            }
+
+            int replayed = 0;
+            while (replayed < maxRecords) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    if (replayed == maxRecords) {
+                        break;
+                    }
+                    sends.add(deadLetterKafkaTemplate.send(toOriginal(topic, record)));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                awaitAll(sends);
+                consumer.commitSync(offsets);
+            }
+            log.info("Replayed {} dead letters from {}", replayed, deadLetterTopic);
+            return replayed;
+        }
+    }
+
+    private ProducerRecord<String, Object> toOriginal(String topic, ConsumerRecord<String, byte[]> record) {
+        ProducerRecord<String, Object> replay = new ProducerRecord<>(topic, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DLT_HEADER_PREFIX)) {
+                replay.headers().add(header);
+            }
+        }
+        return replay;
+    }
+
+    private void awaitAll(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying dead letters", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // nothing committed for this batch; the next replay starts from it again
+            throw new IllegalStateException("Failed to replay dead letters", e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.entity.User;
+import com.yushan.user_service.repository.UserRepository;
+import com.yushan.user_service.util.RedisUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Redis-first last_active at minute granularity, written back to the database in batches
+ *
+ * Flow:
+ * 1. record(): one Lua script raises the user's score (epoch minute) in a sorted set and,
+ *    only if it moved forward, marks the user dirty. Repeats within the same minute cost
+ *    one Redis call and nothing else
+ * 2. flush() (scheduled): pops dirty users with their minute and writes them with one
+ *    conditional UPDATE per batch. Rows are put back if the write fails. Several instances
+ *    can flush at the same time; SPOP hands out disjoint users
+ * 3. overlay(): reads take the later of the database value and the Redis value
+ *
+ * A crash between pop and write loses only the write-back of that batch; Redis keeps
+ * serving the value and the user's next activity marks it again.
+ */
+@Slf4j
+@Service
+public class LastActiveStore {
+
+    // hash tag keeps both keys in one slot for the scripts on Redis Cluster
+    static final String LAST_ACTIVE_KEY = "user:{last-active}";
+
+    static final String DIRTY_KEY = "user:{last-active}:dirty";
+
+    private static final List<String> KEYS = List.of(LAST_ACTIVE_KEY, DIRTY_KEY);
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    /**
+     * KEYS[1] minutes, KEYS[2] dirty set, ARGV[1] user id, ARGV[2] epoch minute.
+     * Returns 1 if the minute moved forward, otherwise 0.
+     */
+    private static final String RECORD_LUA = """
+            local current = redis.call('ZSCORE', KEYS[1], ARGV[1])
+            if current and tonumber(current) >= tonumber(ARGV[2]) then
+                return 0
+            end
+            redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+            redis.call('SADD', KEYS[2], ARGV[1])
+            return 1
+            """;
+
+    /**
+     * KEYS[1] minutes, KEYS[2] dirty set, ARGV[1] batch size.
+     * Pops up to ARGV[1] dirty users and returns them as id, minute pairs.
+     */
+    private static final String DRAIN_LUA = """
+            local ids = redis.call('SPOP', KEYS[2], ARGV[1])
+            local result = {}
+            for _, id in ipairs(ids) do
+                local minute = redis.call('ZSCORE', KEYS[1], id)
+                if minute then
+                    result[#result + 1] = id
+                    result[#result + 1] = minute
+                end
+            end
+            return result
+            """;
+
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>(RECORD_LUA, Long.class);
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<String>> DRAIN_SCRIPT =
+            (RedisScript) new DefaultRedisScript<>(DRAIN_LUA, List.class);
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${last-active.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    // users idle for longer are dropped from Redis; the database still has their value
+    @Value("${last-active.retention-days:30}")
+    private long retentionDays;
+
+    private Counter flushedCounter;
+
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        flushBatchSize = Math.max(1, flushBatchSize);
+        flushedCounter = meterRegistry.counter("last.active.flushed");
+        failedCounter = meterRegistry.counter("last.active.flush.failures");
+    }
+
+    /**
+     * Record activity of a user
+     *
+     * @return true if the stored minute moved forward
+     * @throws org.springframework.dao.DataAccessException if Redis is unavailable
+     */
+    public boolean record(UUID userId, Instant lastActive) {
+        Long moved = redisUtil.execute(RECORD_SCRIPT, KEYS,
+                userId.toString(), String.valueOf(toMinute(lastActive)));
+        return moved != null && moved == 1L;
+    }
+
+    /**
+     * Replace each user's last_active with the Redis value when that one is later.
+     * Without Redis the database values are kept.
+     */
+    public void overlay(List<User> users) {
+        if (users == null || users.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(users.size());
+        for (User user : users) {
+            ids.add(user.getUuid().toString());
+        }
+
+        List<Double> minutes;
+        try {
+            minutes = redisUtil.zScores(LAST_ACTIVE_KEY, ids);
+        } catch (Exception e) {
+            log.warn("Last active overlay unavailable, using stored values: {}", e.getMessage());
+            return;
+        }
+        if (minutes == null) {
+            return;
+        }
+
+        for (int i = 0; i < users.size() && i < minutes.size(); i++) {
+            Double minute = minutes.get(i);
+            if (minute == null) {
+                continue;
+            }
+            User user = users.get(i);
+            Date cached = new Date(minute.longValue() * MILLIS_PER_MINUTE);
+            if (user.getLastActive() == null || user.getLastActive().before(cached)) {
+                user.setLastActive(cached);
+            }
+        }
+    }
+
+    /**
+     * Write every dirty user to the database, one batch per statement
+     */
+    @Scheduled(fixedDelayString = "${last-active.flush-interval-ms:10000}")
+    public void flush() {
+        try {
+            int flushed;
+            do {
+                flushed = flushBatch();
+            } while (flushed == flushBatchSize);
+            trim();
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("Last active flush failed, users stay dirty: {}", e.getMessage());
+        }
+    }
+
+    private int flushBatch() {
+        List<String> drained = redisUtil.execute(DRAIN_SCRIPT, KEYS, String.valueOf(flushBatchSize));
+        if (drained == null || drained.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, Date> lastActive = new HashMap<>();
+        List<String> ids = new ArrayList<>(drained.size() / 2);
+        for (int i = 0; i + 1 < drained.size(); i += 2) {
+            ids.add(drained.get(i));
+            long minute = (long) Double.parseDouble(drained.get(i + 1));
+            lastActive.put(UUID.fromString(drained.get(i)), new Date(minute * MILLIS_PER_MINUTE));
+        }
+
+        try {
+            int updated = userRepository.updateLastActiveBatch(lastActive);
+            log.debug("Flushed last active of {} users, {} rows moved forward", lastActive.size(), updated);
+        } catch (RuntimeException e) {
+            // the update is monotonic, so writing them again next round is safe
+            redisUtil.sAdd(DIRTY_KEY, ids);
+            throw e;
+        }
+        flushedCounter.increment(lastActive.size());
+        return ids.size();
+    }
+
+    private void trim() {
+        long oldest = toMinute(Instant.now().minus(Duration.ofDays(retentionDays)));
+        redisUtil.zRemoveRangeByScore(LAST_ACTIVE_KEY, Double.NEGATIVE_INFINITY, oldest);
+    }
+
+    private static long toMinute(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), MILLIS_PER_MINUTE);
+    }
+}
@@ -1,5 +1,6 @@
 package com.yushan.user_service.service;
 
+import com.yushan.user_service.enums.RateLimitPolicy;
 import com.yushan.user_service.util.MailUtil;
 import com.yushan.user_service.util.RedisUtil;
 import jakarta.mail.MessagingException;
@@ -21,8 +22,8 @@ public class MailService {
     @Autowired
     private RedisUtil redisUtil;
 
-    // email rate limit
-    private static final int LIMIT_TIME = 60000;
+    @Autowired
+    private RateLimitService rateLimitService;
 
     private final SecureRandom secureRandom = new SecureRandom();
     private static final int CODE_LENGTH = 6;
@@ -33,8 +34,8 @@ public class MailService {
      * @param email
      */
     public void sendVerificationCode(String email) {
-        // check rate limit
-        checkEmailRateLimit(email);
+        // check & record rate limit atomically
+        rateLimitService.acquire(RateLimitPolicy.VERIFICATION_EMAIL, email);
         String verificationCode = generateSecureCode();
         // content
         String subject = "Verify Your Code in Yushan";
@@ -74,37 +75,6 @@ public class MailService {
         } catch (MessagingException | UnsupportedEncodingException e) {
             throw new RuntimeException("failed to send verification email", e);
         }
-
-        recordEmailSendTime(email);
-    }
-
-    /**
-     * check email rate limit
-     * @param email
-     */
-    private void checkEmailRateLimit(String email) {
-        String key = "email_send_time:" + email;
-        String lastSendTimeStr = redisUtil.get(key);
-
-        if (lastSendTimeStr != null) {
-            long lastSendTime = Long.parseLong(lastSendTimeStr);
-            long currentTime = System.currentTimeMillis();
-
-            // limit_time: 60s
-            if (currentTime - lastSendTime < LIMIT_TIME) {
-                long remainingTime = (LIMIT_TIME - (currentTime - lastSendTime)) / 1000;
-                throw new RuntimeException("email sends too often, please try again after " + remainingTime + " second(s)");
-            }
-        }
-    }
-
-    /**
-     * record email send time
-     * @param email
-     */
-    private void recordEmailSendTime(String email) {
-        String key = "email_send_time:" + email;
-        redisUtil.set(key, String.valueOf(System.currentTimeMillis()), LIMIT_TIME, TimeUnit.MILLISECONDS);
     }
 
     /**
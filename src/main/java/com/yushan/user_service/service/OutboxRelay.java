@@ -0,0 +1,161 @@
+package com.yushan.user_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.dao.OutboxMapper;
+import com.yushan.user_service.entity.OutboxMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox table into Kafka
+ *
+ * Each batch transaction first takes a Postgres advisory lock, so across all instances
+ * only one batch is in flight at a time; the others skip the round. The batch is the
+ * oldest batch-size rows in id order, handed to the (idempotent, acks=all) producer,
+ * and deleted in the same transaction once every send is acknowledged. If any send
+ * fails the transaction rolls back and the whole batch is resent, in the same order, on
+ * the next round, so delivery is at-least-once.
+ *
+ * Ordering: messages of one key are sent in id order, and after a partial failure the
+ * resend ends with the same latest message, so the last message a consumer sees for a
+ * key is always the latest one (duplicates are possible). Writers that must keep a
+ * per-user order (status changes) lock the user row first, so id order matches commit
+ * order for that user.
+ *
+ * A round sends at most max-batches-per-round batches, so a large backlog does not keep
+ * the shared scheduler thread away from the other jobs.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    // only our own event classes may be rebuilt from the table
+    private static final String PAYLOAD_PACKAGE = "com.yushan.user_service.event.dto.";
+
+    // advisory lock id shared by every instance ("outbox" in ASCII)
+    static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+
+    @Autowired
+    private OutboxMapper outboxMapper;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.relay.max-batches-per-round:20}")
+    private int maxBatchesPerRound;
+
+    private Counter sentCounter;
+
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        batchSize = Math.max(1, batchSize);
+        maxBatchesPerRound = Math.max(1, maxBatchesPerRound);
+        sentCounter = meterRegistry.counter("outbox.relay.sent");
+        failedCounter = meterRegistry.counter("outbox.relay.failures");
+    }
+
+    /**
+     * Send up to max-batches-per-round batches from the outbox, one batch per transaction
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        try {
+            Integer relayed;
+            int batches = 0;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+                batches++;
+            } while (relayed != null && relayed == batchSize && batches < maxBatchesPerRound);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("Outbox relay round failed, messages stay queued: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        if (!outboxMapper.tryLockRelay(RELAY_LOCK_KEY)) {
+            // another instance is relaying; it will get to these rows
+            return 0;
+        }
+        List<OutboxMessage> batch = outboxMapper.selectBatchForUpdate(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            ids.add(message.getId());
+            Object payload = decode(message);
+            if (payload != null) {
+                sends.add(kafkaTemplate.send(message.getTopic(), message.getMessageKey(), payload));
+            }
+        }
+
+        awaitAll(sends);
+        outboxMapper.deleteByIds(ids);
+        sentCounter.increment(sends.size());
+        log.debug("Relayed {} outbox messages", sends.size());
+        return batch.size();
+    }
+
+    private void awaitAll(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge the batch", e);
+        }
+    }
+
+    /**
+     * Rebuild the original payload object; rows that can never be sent are dropped
+     * instead of blocking the queue
+     */
+    private Object decode(OutboxMessage message) {
+        try {
+            if (!message.getPayloadType().startsWith(PAYLOAD_PACKAGE)) {
+                throw new IllegalArgumentException("unexpected payload type " + message.getPayloadType());
+            }
+            return objectMapper.readValue(message.getPayload(), Class.forName(message.getPayloadType()));
+        } catch (Exception e) {
+            log.error("Dropping outbox message {} for topic {}: {}", message.getId(), message.getTopic(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.yushan.user_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.dao.OutboxMapper;
+import com.yushan.user_service.entity.OutboxMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes Kafka messages to the outbox table
+ *
+ * Called inside the transaction that changes the user, so the message is stored
+ * if and only if the change commits. {@link OutboxRelay} sends it afterwards;
+ * the request thread never waits on Kafka.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxMapper outboxMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Queue one message
+     *
+     * @param topic Kafka topic
+     * @param key record key, null for none
+     * @param payload record value, serialized as JSON
+     */
+    @Transactional
+    public void enqueue(String topic, String key, Object payload) {
+        outboxMapper.insertBatch(List.of(toMessage(topic, key, payload)));
+    }
+
+    /**
+     * Queue many messages for one topic with a single insert
+     *
+     * @param topic Kafka topic
+     * @param payloads record values, serialized as JSON
+     * @param key record key of each value
+     */
+    @Transactional
+    public <T> void enqueueAll(String topic, List<T> payloads, Function<T, String> key) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        List<OutboxMessage> messages = new ArrayList<>(payloads.size());
+        for (T payload : payloads) {
+            messages.add(toMessage(topic, key.apply(payload), payload));
+        }
+        outboxMapper.insertBatch(messages);
+    }
+
+    private OutboxMessage toMessage(String topic, String key, Object payload) {
+        try {
+            return new OutboxMessage(topic, key, payload.getClass().getName(), objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + payload.getClass().getSimpleName() + " for outbox", e);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated CPU-bounded pool
+ *
+ * Flow:
+ * 1. Submit the hash/verify task to a fixed pool sized to the core count
+ * 2. Tasks wait in a bounded queue; when it is full the caller is shed immediately
+ *    with a 503 + Retry-After instead of pinning a Tomcat worker
+ * 3. The calling thread waits for the result up to a timeout
+ *
+ * New hashes use the configured BCrypt cost, optionally calibrated on startup so that
+ * one hash takes about password.hash.bcrypt.target-ms. Hashes stored with other
+ * parameters are upgraded in the background after a successful login, on a separate
+ * low-priority pool (password.hash.rehash-pool-size) so upgrades never queue in front
+ * of login verifications.
+ */
+@Slf4j
+@Service
+public class PasswordHashService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${password.hash.pool-size:0}")
+    private int poolSize;
+
+    @Value("${password.hash.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${password.hash.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${password.hash.rehash-pool-size:1}")
+    private int rehashPoolSize;
+
+    @Value("${password.hash.rehash-queue-capacity:32}")
+    private int rehashQueueCapacity;
+
+    @Value("${password.hash.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Value("${password.hash.bcrypt.cost:10}")
+    private int cost;
+
+    // 0 disables startup calibration and keeps the configured cost
+    @Value("${password.hash.bcrypt.target-ms:0}")
+    private long targetMillis;
+
+    private static final String BCRYPT_ALGORITHM = "2a";
+
+    // never calibrate below the BCrypt default or into multi-second hashes
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 16;
+
+    private ThreadPoolExecutor executor;
+
+    private ThreadPoolExecutor rehashExecutor;
+
+    private Timer hashTimer;
+
+    private Timer verifyTimer;
+
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        int rehashThreads = Math.max(1, rehashPoolSize);
+        AtomicInteger rehashThreadCount = new AtomicInteger();
+        rehashExecutor = new ThreadPoolExecutor(rehashThreads, rehashThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, rehashQueueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-rehash-" + rehashThreadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hash tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hash workers currently busy")
+                .register(meterRegistry);
+        hashTimer = Timer.builder("password.hash.duration")
+                .description("Time spent computing password hashes")
+                .tag("operation", "hash")
+                .register(meterRegistry);
+        verifyTimer = Timer.builder("password.hash.duration")
+                .description("Time spent computing password hashes")
+                .tag("operation", "verify")
+                .register(meterRegistry);
+
+        if (targetMillis > 0) {
+            cost = calibrateCost(cost, targetMillis);
+        }
+
+        log.info("Password hash pool started with {} thread(s), queue capacity {}, bcrypt cost {}",
+                threads, queueCapacity, cost);
+    }
+
+    /**
+     * Pick the cost whose hash time is closest to the target without exceeding it.
+     * Each cost step doubles the work, so one measurement is enough to extrapolate.
+     */
+    private int calibrateCost(int startCost, long targetMs) {
+        int probeCost = Math.max(MIN_COST, Math.min(MAX_COST, startCost));
+        BCrypt.hashpw("calibration", BCrypt.gensalt(probeCost)); // warm up
+        long begin = System.nanoTime();
+        BCrypt.hashpw("calibration", BCrypt.gensalt(probeCost));
+        double elapsedMs = Math.max(1, (System.nanoTime() - begin) / 1_000_000.0);
+
+        int calibrated = probeCost;
+        while (calibrated < MAX_COST && elapsedMs * 2 <= targetMs) {
+            calibrated++;
+            elapsedMs *= 2;
+        }
+        while (calibrated > MIN_COST && elapsedMs > targetMs) {
+            calibrated--;
+            elapsedMs /= 2;
+        }
+        log.info("Calibrated bcrypt cost to {} (~{} ms per hash, target {} ms)", calibrated, Math.round(elapsedMs), targetMs);
+        return calibrated;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (rehashExecutor != null) {
+            rehashExecutor.shutdown();
+        }
+    }
+
+    /**
+     * hash a raw password with a fresh salt
+     * @param password
+     * @return
+     */
+    public String hash(String password) {
+        return submit(() -> hashTimer.recordCallable(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost))));
+    }
+
+    /**
+     * check a raw password against a stored hash
+     * @param password
+     * @param hashedPassword
+     * @return
+     */
+    public boolean matches(String password, String hashedPassword) {
+        if (password == null || hashedPassword == null) {
+            return false;
+        }
+        return submit(() -> verifyTimer.recordCallable(() -> BCrypt.checkpw(password, hashedPassword)));
+    }
+
+    /**
+     * parse the algorithm and cost recorded in a stored hash
+     * @param hashedPassword
+     * @return params, or null if the hash is not in modular crypt bcrypt format
+     */
+    public HashParams parse(String hashedPassword) {
+        // $2a$10$<22 char salt><31 char hash>
+        if (hashedPassword == null || hashedPassword.length() != 60
+                || hashedPassword.charAt(0) != '$' || hashedPassword.charAt(3) != '$' || hashedPassword.charAt(6) != '$') {
+            return null;
+        }
+        try {
+            return new HashParams(hashedPassword.substring(1, 3), Integer.parseInt(hashedPassword.substring(4, 6)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * whether a stored hash was produced with parameters other than the current target
+     * @param hashedPassword
+     * @return
+     */
+    public boolean needsRehash(String hashedPassword) {
+        HashParams params = parse(hashedPassword);
+        return params != null && !params.equals(targetParams());
+    }
+
+    public HashParams targetParams() {
+        return new HashParams(BCRYPT_ALGORITHM, cost);
+    }
+
+    /**
+     * Re-hash a verified password on the rehash pool without waiting for the result.
+     * Skipped when that pool is saturated - the next login will try again.
+     * @param password
+     * @param onHashed receives the new hash
+     */
+    public void rehashInBackground(String password, Consumer<String> onHashed) {
+        try {
+            rehashExecutor.execute(() -> {
+                try {
+                    onHashed.accept(hashTimer.recordCallable(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost))));
+                } catch (Exception e) {
+                    log.warn("Background password rehash failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Password rehash pool saturated, skipping rehash");
+        }
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("password.hash.rejected").increment();
+            throw new ServiceOverloadedException("Server is busy, please try again later", retryAfterSeconds);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceOverloadedException("Server is busy, please try again later", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("failed to hash password", cause);
+        }
+    }
+
+    /**
+     * algorithm identifier and cost factor recorded in a stored hash
+     */
+    public record HashParams(String algorithm, int cost) {
+    }
+}
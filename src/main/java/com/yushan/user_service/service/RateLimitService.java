@@ -0,0 +1,122 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.enums.RateLimitPolicy;
+import com.yushan.user_service.exception.RateLimitExceededException;
+import com.yushan.user_service.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sliding-window rate limiter backed by Redis
+ *
+ * Flow:
+ * 1. Check the local pre-filter: callers already known to be over the limit
+ *    are rejected without a Redis round trip until their window frees up
+ * 2. Run one Lua script that trims the window, counts and records the attempt atomically
+ * 3. If Redis is unavailable, fail open - rate limiting must never take login down
+ */
+@Slf4j
+@Service
+public class RateLimitService {
+
+    /**
+     * KEYS[1] window key, ARGV[1] now (ms), ARGV[2] window (ms), ARGV[3] limit, ARGV[4] unique member.
+     * Returns 0 when the attempt is admitted, otherwise milliseconds until the oldest attempt leaves the window.
+     */
+    private static final String SLIDING_WINDOW_LUA = """
+            local now = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+            if redis.call('ZCARD', KEYS[1]) < tonumber(ARGV[3]) then
+                redis.call('ZADD', KEYS[1], now, ARGV[4])
+                redis.call('PEXPIRE', KEYS[1], window)
+                return 0
+            end
+            local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+            local retry = tonumber(oldest[2]) + window - now
+            if retry < 1 then
+                retry = 1
+            end
+            return retry
+            """;
+
+    private static final RedisScript<Long> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>(SLIDING_WINDOW_LUA, Long.class);
+
+    // upper bound for the local pre-filter so a flood of distinct keys cannot grow the heap
+    private static final int LOCAL_BLOCK_CAPACITY = 10_000;
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    private final Map<String, Long> localBlockedUntil = new ConcurrentHashMap<>();
+
+    /**
+     * Record one attempt for the identifier under the given policy
+     *
+     * @param policy rate limit policy
+     * @param identifier email, client IP or user id; blank identifiers are not limited
+     * @throws RateLimitExceededException if the caller is over the limit
+     */
+    public void acquire(RateLimitPolicy policy, String identifier) {
+        if (identifier == null || identifier.isBlank()) {
+            return;
+        }
+
+        String key = policy.key(identifier);
+        long now = System.currentTimeMillis();
+
+        // 1. local pre-filter
+        Long blockedUntil = localBlockedUntil.get(key);
+        if (blockedUntil != null) {
+            if (blockedUntil > now) {
+                throw exceeded(policy, blockedUntil - now);
+            }
+            localBlockedUntil.remove(key, blockedUntil);
+        }
+
+        // 2. atomic check-and-record in Redis
+        Long retryAfterMillis;
+        try {
+            retryAfterMillis = redisUtil.execute(SLIDING_WINDOW_SCRIPT, Collections.singletonList(key),
+                    String.valueOf(now),
+                    String.valueOf(policy.getWindowMillis()),
+                    String.valueOf(policy.getLimit()),
+                    now + "-" + ThreadLocalRandom.current().nextLong());
+        } catch (Exception e) {
+            // 3. fail open
+            log.warn("Rate limiter unavailable for policy {}, allowing request: {}", policy, e.getMessage());
+            return;
+        }
+
+        if (retryAfterMillis != null && retryAfterMillis > 0) {
+            rememberBlocked(key, now + retryAfterMillis);
+            throw exceeded(policy, retryAfterMillis);
+        }
+    }
+
+    private void rememberBlocked(String key, long blockedUntil) {
+        if (localBlockedUntil.size() >= LOCAL_BLOCK_CAPACITY) {
+            long now = System.currentTimeMillis();
+            localBlockedUntil.values().removeIf(until -> until <= now);
+            if (localBlockedUntil.size() >= LOCAL_BLOCK_CAPACITY) {
+                return;
+            }
+        }
+        localBlockedUntil.put(key, blockedUntil);
+    }
+
+    private RateLimitExceededException exceeded(RateLimitPolicy policy, long retryAfterMillis) {
+        long retryAfterSeconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        return new RateLimitExceededException(
+                policy.getMessage() + ", please try again after " + retryAfterSeconds + " second(s)",
+                retryAfterSeconds);
+    }
+}
@@ -0,0 +1,151 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.dao.UserCounterMapper;
+import com.yushan.user_service.dto.AdminUserFilterDTO;
+import com.yushan.user_service.entity.User;
+import com.yushan.user_service.enums.UserStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintained user totals per (status, isAuthor, isAdmin) bucket
+ *
+ * Writers adjust the counters inside their own transaction, so a rolled-back
+ * registration or status change leaves the totals untouched. Admin list pages
+ * sum at most 12 rows instead of running COUNT(*) over users. A periodic
+ * reconcile rewrites every row from the users table to absorb any drift
+ * (e.g. rows deleted outside the service).
+ *
+ * Writers must read the user's "before" bucket from a locked row (SELECT ... FOR
+ * UPDATE or UPDATE ... RETURNING), otherwise two concurrent changes of one user both
+ * move the counters.
+ *
+ * Contention: a counter row stays locked from the increment until the writer commits.
+ * Every registration increments the same (NORMAL, false, false) row, so concurrent
+ * registrations serialize on it for that window; callers therefore count the new
+ * user as the last write of the registration transaction.
+ */
+@Slf4j
+@Service
+public class UserCounterService {
+
+    /**
+     * Counter row a user belongs to
+     */
+    public record Bucket(int status, boolean isAuthor, boolean isAdmin) {
+
+        private static final Comparator<Bucket> LOCK_ORDER = Comparator.comparingInt(Bucket::status)
+                .thenComparing(Bucket::isAuthor)
+                .thenComparing(Bucket::isAdmin);
+
+        public static Bucket of(User user) {
+            return of(user.getStatus(), user.getIsAuthor(), user.getIsAdmin());
+        }
+
+        public static Bucket of(Integer status, Boolean isAuthor, Boolean isAdmin) {
+            int code = status != null ? status : UserStatus.NORMAL.getCode();
+            return new Bucket(code, Boolean.TRUE.equals(isAuthor), Boolean.TRUE.equals(isAdmin));
+        }
+
+        public Bucket withStatus(UserStatus newStatus) {
+            return new Bucket(newStatus.getCode(), isAuthor, isAdmin);
+        }
+    }
+
+    @Autowired
+    private UserCounterMapper userCounterMapper;
+
+    /**
+     * Count a newly created user; must run in the transaction that inserts the user
+     *
+     * @param user created user
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(User user) {
+        increment(Bucket.of(user), 1);
+    }
+
+    /**
+     * Move one user between buckets; must run in the transaction that updates the user
+     *
+     * @param from bucket before the change
+     * @param to bucket after the change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMoved(Bucket from, Bucket to) {
+        if (from.equals(to)) {
+            return;
+        }
+        Map<Bucket, Long> deltas = new TreeMap<>(Bucket.LOCK_ORDER);
+        deltas.put(from, -1L);
+        deltas.put(to, 1L);
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Move many users to a new status with at most one UPDATE per affected bucket;
+     * must run in the transaction that updates the users
+     *
+     * @param from buckets of the changed users before the change, one per user
+     * @param newStatus status all of them moved to
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanges(List<Bucket> from, UserStatus newStatus) {
+        Map<Bucket, Long> deltas = new TreeMap<>(Bucket.LOCK_ORDER);
+        for (Bucket bucket : from) {
+            deltas.merge(bucket, -1L, Long::sum);
+            deltas.merge(bucket.withStatus(newStatus), 1L, Long::sum);
+        }
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Total users matching the admin list filters
+     *
+     * @param filter admin list filters (pagination and sorting are ignored)
+     * @return user count
+     */
+    public long count(AdminUserFilterDTO filter) {
+        return userCounterMapper.sumForFilter(filter);
+    }
+
+    /**
+     * Rewrite all counters from the users table
+     *
+     * Runs under an exclusive lock on user_counters: every writer that already moved a
+     * counter has committed before the count is taken, and writers that have not yet
+     * moved one wait until the new values are committed, so the snapshot cannot lose
+     * or double count an in-flight change. Writes that touch counters are blocked for
+     * the duration of the count.
+     */
+    @Scheduled(fixedDelayString = "${user-counters.reconcile-interval-ms:3600000}",
+               initialDelayString = "${user-counters.reconcile-interval-ms:3600000}")
+    @Transactional
+    public void reconcile() {
+        userCounterMapper.lockForReconcile();
+        int rows = userCounterMapper.reconcile();
+        log.info("Reconciled {} user counter rows", rows);
+    }
+
+    // rows are updated in a fixed order so concurrent moves cannot deadlock
+    private void applyDeltas(Map<Bucket, Long> deltas) {
+        deltas.forEach((bucket, delta) -> {
+            if (delta != 0) {
+                increment(bucket, delta);
+            }
+        });
+    }
+
+    private void increment(Bucket bucket, long delta) {
+        userCounterMapper.increment(bucket.status(), bucket.isAuthor(), bucket.isAdmin(), delta);
+    }
+}
@@ -10,9 +10,10 @@ import com.yushan.user_service.enums.UserStatus;
 import com.yushan.user_service.exception.ResourceNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
@@ -29,6 +30,9 @@ public class UserService {
     @Autowired
     private MailService mailService;
 
+    @Autowired
+    private LastActiveStore lastActiveStore;
+
     /**
      * Load a user's profile by UUID and map to response DTO
      */
@@ -37,6 +41,7 @@ public class UserService {
         if (user == null) {
             throw new ResourceNotFoundException("User not found");
         }
+        lastActiveStore.overlay(List.of(user));
         return mapToProfileResponse(user);
     }
 
@@ -99,7 +104,7 @@ public class UserService {
         // update timestamp
         toUpdate.setUpdateTime(new Date());
 
-        userRepository.save(toUpdate);
+        userRepository.update(toUpdate);
 
         // reload to get latest values
         User updated = userRepository.findById(userId);
@@ -149,10 +154,16 @@ public class UserService {
 
     public List<UserProfileResponseDTO> getUsersByIds(List<UUID> userIds) {
         List<User> users = userRepository.findByUuids(userIds);
+        lastActiveStore.overlay(users);
         return users.stream().map(this::mapToProfileResponse).toList();
     }
 
-    @Async
+    /**
+     * Runs on the activity listener's worker thread (not @Async), so a failure reaches the
+     * Kafka error handler and the offset is committed only after the update.
+     * Goes to LastActiveStore (Redis, flushed to the database in batches); only when
+     * Redis is down is the database updated directly.
+     */
     public void updateLastActiveTime(UUID userId, LocalDateTime lastActive) {
         if (userId == null) {
             log.warn("updateLastActiveTime called with null userId");
@@ -164,28 +175,25 @@ public class UserService {
             return;
         }
 
-        // Idempotency check is already done at Listener level
-        // This method just updates the database
-        User user = userRepository.findById(userId);
-        if (user == null) {
-            log.warn("User not found for updateLastActiveTime: userId={}", userId);
+        Instant instant = lastActive.atZone(ZoneId.systemDefault()).toInstant();
+        try {
+            if (lastActiveStore.record(userId, instant)) {
+                log.debug("Recorded last active time for user: {}, timestamp: {}", userId, lastActive);
+            }
             return;
+        } catch (DataAccessException e) {
+            log.warn("Last active store unavailable, updating database for user {}: {}", userId, e.getMessage());
         }
 
-        // Only update if the new timestamp is newer than the current one
-        // This prevents old events from overwriting newer timestamps
-        Date currentLastActive = user.getLastActive();
-        Date newLastActive = Date.from(lastActive.atZone(ZoneId.systemDefault()).toInstant());
-        
-        if (currentLastActive != null && !newLastActive.after(currentLastActive)) {
-            log.debug("Skipping updateLastActiveTime: new timestamp {} is not newer than current {} for user: {}", 
-                    newLastActive, currentLastActive, userId);
-            return;
+        // One conditional UPDATE: only moves last_active forward, so older or concurrent
+        // events cannot overwrite a newer timestamp and no read is needed first
+        Date newLastActive = Date.from(instant);
+        if (userRepository.updateLastActive(userId, newLastActive)) {
+            log.info("Successfully updated last active time for user: {}, new timestamp: {}", userId, newLastActive);
+        } else {
+            log.debug("Skipping updateLastActiveTime: user {} not found or already active at or after {}",
+                    userId, newLastActive);
         }
-
-        user.updateLastActive(newLastActive);
-        userRepository.save(user);
-        log.info("Successfully updated last active time for user: {}, new timestamp: {}", userId, newLastActive);
     }
 
     /**
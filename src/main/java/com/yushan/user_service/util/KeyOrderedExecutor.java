@@ -0,0 +1,90 @@
+package com.yushan.user_service.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks in parallel across keys but in submission order for the same key
+ *
+ * Each key is hashed to one of a fixed number of single-threaded lanes. Lane queues are
+ * bounded: when a lane is full, submit() blocks the caller until there is room, so a slow
+ * downstream slows the producer instead of growing the heap.
+ */
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor[] lanes;
+
+    /**
+     * @param name thread name prefix
+     * @param laneCount number of lanes (threads)
+     * @param queueCapacity tasks each lane may hold before submit() blocks
+     */
+    public KeyOrderedExecutor(String name, int laneCount, int queueCapacity) {
+        if (laneCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("laneCount and queueCapacity must be positive");
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    task -> new Thread(task, name + "-" + threadNumber.incrementAndGet()),
+                    KeyOrderedExecutor::waitForRoom);
+        }
+    }
+
+    /**
+     * Queue a task behind earlier tasks with the same key
+     *
+     * @param key ordering key, e.g. a user ID
+     * @param task work to run
+     * @return completes when the task has run, exceptionally if it failed
+     */
+    public CompletableFuture<Void> submit(Object key, Runnable task) {
+        return CompletableFuture.runAsync(task, lanes[Math.floorMod(key.hashCode(), lanes.length)]);
+    }
+
+    /**
+     * @return tasks waiting in all lanes
+     */
+    public int queuedTasks() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    /**
+     * Stop accepting tasks and wait for queued ones to finish
+     */
+    @Override
+    public void close() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                lane.awaitTermination(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitForRoom(Runnable task, ThreadPoolExecutor lane) {
+        if (lane.isShutdown()) {
+            throw new RejectedExecutionException("Lane is shut down");
+        }
+        try {
+            lane.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for lane capacity", e);
+        }
+    }
+}
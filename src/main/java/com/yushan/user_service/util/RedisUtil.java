@@ -6,9 +6,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -153,6 +155,29 @@ public class RedisUtil {
         return zSetOperations.score(key, member);
     }
 
+    /**
+     * get the scores of several members in one round trip (ZMSCORE)
+     * @return scores in member order, null for missing members
+     */
+    public List<Double> zScores(String key, Collection<String> members) {
+        return zSetOperations.score(key, members.toArray());
+    }
+
+    /**
+     * remove members with a score between min and max (inclusive)
+     * @return number of removed members
+     */
+    public Long zRemoveRangeByScore(String key, double min, double max) {
+        return zSetOperations.removeRangeByScore(key, min, max);
+    }
+
+    /**
+     * add members to a set
+     */
+    public Long sAdd(String key, Collection<String> members) {
+        return stringRedisTemplate.opsForSet().add(key, members.toArray(new String[0]));
+    }
+
     /**
      * batch delete
      */
@@ -163,4 +188,11 @@ public class RedisUtil {
     public Set<String> keys(String pattern) {
         return stringRedisTemplate.keys(pattern);
     }
+
+    /**
+     * execute a lua script atomically
+     */
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        return stringRedisTemplate.execute(script, keys, args);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+-- Hot activity timestamps move out of the wide users row
+-- last_active / last_login change on every login and activity event; in users each change
+-- wrote a new version of the whole tuple (avatar_url, profile_detail) and its index entries.
+-- The narrow table has no index on the updated columns and leaves 30% free space per page,
+-- so the updates stay HOT (same page, no index writes). Autovacuum runs earlier on it.
+
+CREATE TABLE IF NOT EXISTS user_activity (
+    uuid UUID PRIMARY KEY REFERENCES users(uuid) ON DELETE CASCADE,
+    last_login TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_active TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+) WITH (fillfactor = 70, autovacuum_vacuum_scale_factor = 0.05);
+
+INSERT INTO user_activity (uuid, last_login, last_active)
+SELECT uuid, last_login, last_active FROM users
+ON CONFLICT (uuid) DO NOTHING;
+
+-- users.last_login / last_active are kept for now: during a rolling deploy the previous
+-- version still writes them (and registers users without an activity row), so reads take
+-- the later of both values. They are dropped in a later release, once no running version
+-- writes them, by a migration that first folds them in once more:
+--   INSERT INTO user_activity (uuid, last_login, last_active)
+--   SELECT uuid, last_login, last_active FROM users
+--   ON CONFLICT (uuid) DO UPDATE
+--   SET last_login = GREATEST(user_activity.last_login, EXCLUDED.last_login),
+--       last_active = GREATEST(user_activity.last_active, EXCLUDED.last_active);
+--   ALTER TABLE users DROP COLUMN last_login, DROP COLUMN last_active;
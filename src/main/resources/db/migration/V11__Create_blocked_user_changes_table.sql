@@ -0,0 +1,10 @@
+-- Change log of the blocked-user set shared by every instance: each row flips one
+-- user in or out of the set, and version is the global version gateways poll with.
+-- Writers append under a table lock, so version order is commit order.
+
+CREATE TABLE IF NOT EXISTS blocked_user_changes (
+    version BIGSERIAL PRIMARY KEY,
+    user_uuid UUID NOT NULL,
+    blocked BOOLEAN NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
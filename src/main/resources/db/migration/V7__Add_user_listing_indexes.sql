@@ -0,0 +1,15 @@
+-- Indexes for the admin user listing (keyset pagination over (create_time, uuid))
+-- and the blocked-user index load
+
+-- Unfiltered listing, both sort directions
+CREATE INDEX IF NOT EXISTS idx_users_create_time_uuid ON users(create_time DESC, uuid DESC);
+
+-- Listing filtered by status
+CREATE INDEX IF NOT EXISTS idx_users_status_create_time_uuid ON users(status, create_time DESC, uuid DESC);
+
+-- Admins and authors are a small share of users: partial indexes stay small
+CREATE INDEX IF NOT EXISTS idx_users_admin_create_time_uuid ON users(create_time DESC, uuid DESC) WHERE is_admin;
+CREATE INDEX IF NOT EXISTS idx_users_author_create_time_uuid ON users(create_time DESC, uuid DESC) WHERE is_author;
+
+-- Blocked (SUSPENDED or BANNED) user ids
+CREATE INDEX IF NOT EXISTS idx_users_blocked ON users(uuid) WHERE status IN (1, 2);
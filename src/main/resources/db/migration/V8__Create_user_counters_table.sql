@@ -0,0 +1,20 @@
+-- Maintained user totals per (status, is_author, is_admin) for admin list pages
+-- Any filter combination is answered by summing at most 12 rows instead of COUNT(*) over users
+
+CREATE TABLE IF NOT EXISTS user_counters (
+    status INTEGER NOT NULL,
+    is_author BOOLEAN NOT NULL,
+    is_admin BOOLEAN NOT NULL,
+    user_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (status, is_author, is_admin)
+);
+
+-- One row per combination, seeded from the current users
+INSERT INTO user_counters (status, is_author, is_admin, user_count)
+SELECT s.status, a.is_author, d.is_admin,
+       (SELECT COUNT(*) FROM users u
+        WHERE u.status = s.status AND u.is_author = a.is_author AND u.is_admin = d.is_admin)
+FROM (VALUES (0), (1), (2)) AS s(status)
+CROSS JOIN (VALUES (FALSE), (TRUE)) AS a(is_author)
+CROSS JOIN (VALUES (FALSE), (TRUE)) AS d(is_admin)
+ON CONFLICT (status, is_author, is_admin) DO NOTHING;
@@ -0,0 +1,52 @@
+package com.yushan.user_service.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncConfigTest {
+
+    @Test
+    void saturatedExecutor_RunsTaskOnCallerAndCountsIt() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AsyncConfig config = new AsyncConfig();
+        ReflectionTestUtils.setField(config, "meterRegistry", meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        config.boundedTaskExecutorCustomizer().customize(executor);
+        executor.initialize();
+
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release));
+            executor.execute(() -> { });
+
+            AtomicReference<Thread> ranOn = new AtomicReference<>();
+            executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+            assertSame(Thread.currentThread(), ranOn.get());
+            assertEquals(1.0, meterRegistry.get("async.rejected").counter().count());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.yushan.user_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.event.codec.EventCodecSerializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaProducerConfigTest {
+
+    private KafkaProducerConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new KafkaProducerConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:9092");
+        ReflectionTestUtils.setField(config, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(config, "reliableLingerMs", 0);
+        ReflectionTestUtils.setField(config, "reliableBatchSize", 16384);
+        ReflectionTestUtils.setField(config, "reliableCompressionType", "none");
+        ReflectionTestUtils.setField(config, "activityLingerMs", 20);
+        ReflectionTestUtils.setField(config, "activityBatchSize", 65536);
+        ReflectionTestUtils.setField(config, "activityCompressionType", "lz4");
+        ReflectionTestUtils.setField(config, "activityAcks", "1");
+    }
+
+    @Test
+    void producerFactory_IsIdempotentWithAcksAll() {
+        DefaultKafkaProducerFactory<String, Object> factory =
+                (DefaultKafkaProducerFactory<String, Object>) config.producerFactory();
+        Map<String, Object> props = factory.getConfigurationProperties();
+
+        assertEquals("all", props.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals(true, props.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals(0, props.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(1, factory.getListeners().size());
+    }
+
+    @Test
+    void activityProducerFactory_BatchesAndCompresses() {
+        DefaultKafkaProducerFactory<String, Object> factory =
+                (DefaultKafkaProducerFactory<String, Object>) config.activityProducerFactory();
+        Map<String, Object> props = factory.getConfigurationProperties();
+
+        assertEquals("1", props.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals(false, props.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals(20, props.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(65536, props.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals("lz4", props.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+    }
+
+    @Test
+    void activityProducerFactory_AcksAll_KeepsIdempotence() {
+        ReflectionTestUtils.setField(config, "activityAcks", "all");
+
+        DefaultKafkaProducerFactory<String, Object> factory =
+                (DefaultKafkaProducerFactory<String, Object>) config.activityProducerFactory();
+
+        assertEquals(true, factory.getConfigurationProperties().get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+    }
+
+    @Test
+    void activityProducerFactory_BinaryCodec_UsesCodecSerializer() {
+        ReflectionTestUtils.setField(config, "activityCodec", "binary");
+        ReflectionTestUtils.setField(config, "objectMapper", new ObjectMapper().findAndRegisterModules());
+
+        DefaultKafkaProducerFactory<String, Object> factory =
+                (DefaultKafkaProducerFactory<String, Object>) config.activityProducerFactory();
+
+        assertInstanceOf(EventCodecSerializer.class, factory.getValueSerializerSupplier().get());
+    }
+}
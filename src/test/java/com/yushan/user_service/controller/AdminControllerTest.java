@@ -6,10 +6,14 @@ import com.yushan.user_service.enums.ErrorCode;
 import com.yushan.user_service.enums.UserStatus;
 import com.yushan.user_service.repository.UserRepository;
 import com.yushan.user_service.service.AdminService;
+import com.yushan.user_service.service.DeadLetterReplayService;
 import com.yushan.user_service.service.UserService;
 import com.yushan.user_service.util.JwtUtil;
 import com.yushan.user_service.util.RedisUtil;
 import com.yushan.user_service.event.UserActivityEventProducer;
+import com.yushan.user_service.security.FilterRejectionWriter;
+import com.yushan.user_service.security.GatewayReplayCache;
+import com.yushan.user_service.security.GatewaySignatureVerifier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,10 +26,14 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -47,6 +55,9 @@ class AdminControllerTest {
     @MockBean
     private AdminService adminService;
 
+    @MockBean
+    private DeadLetterReplayService deadLetterReplayService;
+
     @MockBean
     private UserService userService;
 
@@ -59,6 +70,15 @@ class AdminControllerTest {
     @MockBean
     private UserActivityEventProducer userActivityEventProducer;
 
+    @MockBean
+    private GatewaySignatureVerifier gatewaySignatureVerifier;
+
+    @MockBean
+    private GatewayReplayCache gatewayReplayCache;
+
+    @MockBean
+    private FilterRejectionWriter filterRejectionWriter;
+
     private AdminPromoteRequestDTO request;
     private UserProfileResponseDTO response;
 
@@ -182,6 +202,26 @@ class AdminControllerTest {
 
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void scrollUsers_shouldPassCursorAndReturnNextCursor() throws Exception {
+        // Given
+        CursorPageResponseDTO<UserProfileResponseDTO> mockPage =
+                new CursorPageResponseDTO<>(Collections.singletonList(response), 1, "next-token");
+        when(adminService.scrollUsers(any(AdminUserFilterDTO.class), eq("page-token"))).thenReturn(mockPage);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/admin/users/scroll?status=NORMAL&size=1&cursor=page-token")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.data.hasNext").value(true))
+                .andExpect(jsonPath("$.data.content.length()").value(1));
+
+        verify(adminService).scrollUsers(argThat(filter ->
+                filter.getSize() == 1 && filter.getStatus() == UserStatus.NORMAL), eq("page-token"));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void updateUser_shouldCallServiceWithCorrectParameters() throws Exception {
@@ -199,6 +239,66 @@ class AdminControllerTest {
                 .andExpect(jsonPath("$.message").value("User status updated successfully"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateUserStatuses_shouldReturnChangedUsers() throws Exception {
+        // Given
+        UUID changed = UUID.randomUUID();
+        UUID unchanged = UUID.randomUUID();
+        AdminBulkStatusUpdateDTO requestBody = new AdminBulkStatusUpdateDTO();
+        requestBody.setUuids(List.of(changed, unchanged));
+        requestBody.setStatus(UserStatus.SUSPENDED);
+        when(adminService.updateUserStatuses(List.of(changed, unchanged), UserStatus.SUSPENDED))
+                .thenReturn(List.of(changed));
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/admin/users/status")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("1 user statuses updated"))
+                .andExpect(jsonPath("$.data[0]").value(changed.toString()));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateUserStatuses_withoutUuids_shouldBeBadRequest() throws Exception {
+        AdminBulkStatusUpdateDTO requestBody = new AdminBulkStatusUpdateDTO();
+        requestBody.setUuids(List.of());
+        requestBody.setStatus(UserStatus.SUSPENDED);
+
+        mockMvc.perform(put("/api/v1/admin/users/status")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void replayDeadLetters_shouldReturnReplayedCount() throws Exception {
+        when(deadLetterReplayService.replay("active", 50)).thenReturn(3);
+
+        mockMvc.perform(post("/api/v1/admin/kafka/dead-letters/active/replay")
+                        .with(csrf())
+                        .param("maxRecords", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("3 dead letters replayed"))
+                .andExpect(jsonPath("$.data").value(3));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void replayDeadLetters_unknownTopic_shouldBeBadRequest() throws Exception {
+        when(deadLetterReplayService.replay("user.events", 100))
+                .thenThrow(new IllegalArgumentException("Dead letters of topic user.events cannot be replayed"));
+
+        mockMvc.perform(post("/api/v1/admin/kafka/dead-letters/user.events/replay")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void getAllUsers_whenNotAdmin_shouldBeForbidden() throws Exception {
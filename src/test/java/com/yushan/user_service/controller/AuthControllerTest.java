@@ -3,11 +3,17 @@ package com.yushan.user_service.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yushan.user_service.dto.*;
 import com.yushan.user_service.entity.User;
+import com.yushan.user_service.enums.RateLimitPolicy;
 import com.yushan.user_service.event.UserActivityEventProducer;
+import com.yushan.user_service.exception.RateLimitExceededException;
 import com.yushan.user_service.repository.UserRepository;
 import com.yushan.user_service.service.AuthService;
 import com.yushan.user_service.service.MailService;
+import com.yushan.user_service.service.RateLimitService;
 import com.yushan.user_service.util.JwtUtil;
+import com.yushan.user_service.security.FilterRejectionWriter;
+import com.yushan.user_service.security.GatewayReplayCache;
+import com.yushan.user_service.security.GatewaySignatureVerifier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +31,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -54,6 +61,18 @@ public class AuthControllerTest {
     @MockBean
     private UserActivityEventProducer userActivityEventProducer;
 
+    @MockBean
+    private GatewaySignatureVerifier gatewaySignatureVerifier;
+
+    @MockBean
+    private GatewayReplayCache gatewayReplayCache;
+
+    @MockBean
+    private FilterRejectionWriter filterRejectionWriter;
+
+    @MockBean
+    private RateLimitService rateLimitService;
+
     private UserRegistrationRequestDTO registrationDTO;
     private UserAuthResponseDTO userAuthResponseDTO;
     private UserLoginRequestDTO loginRequest;
@@ -125,6 +144,52 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.data.email").value(loginRequest.getEmail()));
     }
 
+    @Test
+    void login_RateLimited_ShouldReturn429WithoutAuthenticating() throws Exception {
+        // Given
+        doThrow(new RateLimitExceededException("too many login attempts, please try again after 42 second(s)", 42))
+                .when(rateLimitService).acquire(RateLimitPolicy.LOGIN_EMAIL_IP, loginRequest.getEmail() + "|203.0.113.7");
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .with(csrf())
+                        // spoofed by the client; only the address resolved by the container counts
+                        .header("X-Forwarded-For", "198.51.100.9")
+                        .with(request -> {
+                            request.setRemoteAddr("203.0.113.7");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "42"))
+                .andExpect(jsonPath("$.code").value(429));
+
+        verify(rateLimitService).acquire(RateLimitPolicy.LOGIN_IP, "203.0.113.7");
+        verify(authService, never()).loginAndCreateResponse(anyString(), anyString());
+    }
+
+    @Test
+    void login_EmailLimitedFromOtherClient_ShouldStillLogIn() throws Exception {
+        // Given
+        doThrow(new RateLimitExceededException("too many login attempts, please try again after 42 second(s)", 42))
+                .when(rateLimitService).acquire(RateLimitPolicy.LOGIN_EMAIL_IP, loginRequest.getEmail() + "|198.51.100.9");
+        when(authService.loginAndCreateResponse(loginRequest.getEmail(), loginRequest.getPassword())).thenReturn(userAuthResponseDTO);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .with(csrf())
+                        .with(request -> {
+                            request.setRemoteAddr("203.0.113.7");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+
+        verify(rateLimitService).acquire(RateLimitPolicy.LOGIN_EMAIL_IP, loginRequest.getEmail() + "|203.0.113.7");
+    }
+
     @Test
     void logout_Success() throws Exception {
         // When & Then
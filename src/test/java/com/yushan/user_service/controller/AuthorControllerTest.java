@@ -25,6 +25,9 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import com.yushan.user_service.security.CustomUserDetailsService.CustomUserDetails;
+import com.yushan.user_service.security.FilterRejectionWriter;
+import com.yushan.user_service.security.GatewayReplayCache;
+import com.yushan.user_service.security.GatewaySignatureVerifier;
 import org.springframework.security.test.context.support.WithSecurityContext;
 import org.springframework.security.test.context.support.WithSecurityContextFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -108,6 +111,15 @@ class AuthorControllerTest {
     @MockBean
     private UserActivityEventProducer userActivityEventProducer;
 
+    @MockBean
+    private GatewaySignatureVerifier gatewaySignatureVerifier;
+
+    @MockBean
+    private GatewayReplayCache gatewayReplayCache;
+
+    @MockBean
+    private FilterRejectionWriter filterRejectionWriter;
+
     private User testUser;
     private String testEmail;
 
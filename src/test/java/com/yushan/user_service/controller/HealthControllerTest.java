@@ -4,6 +4,9 @@ import com.yushan.user_service.event.UserActivityEventProducer;
 import com.yushan.user_service.repository.UserRepository;
 import com.yushan.user_service.service.UserService;
 import com.yushan.user_service.util.JwtUtil;
+import com.yushan.user_service.security.FilterRejectionWriter;
+import com.yushan.user_service.security.GatewayReplayCache;
+import com.yushan.user_service.security.GatewaySignatureVerifier;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -32,6 +35,15 @@ public class HealthControllerTest {
 
     @MockBean
     private UserActivityEventProducer userActivityEventProducer;
+
+    @MockBean
+    private GatewaySignatureVerifier gatewaySignatureVerifier;
+
+    @MockBean
+    private GatewayReplayCache gatewayReplayCache;
+
+    @MockBean
+    private FilterRejectionWriter filterRejectionWriter;
     @Autowired
     private MockMvc mockMvc;
 
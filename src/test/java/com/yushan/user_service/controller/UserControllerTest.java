@@ -1,6 +1,8 @@
 package com.yushan.user_service.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.yushan.user_service.dto.EmailVerificationRequestDTO;
 import com.yushan.user_service.dto.UserProfileResponseDTO;
 import com.yushan.user_service.dto.UserProfileUpdateRequestDTO;
@@ -15,6 +17,9 @@ import com.yushan.user_service.service.MailService;
 import com.yushan.user_service.service.UserService;
 import com.yushan.user_service.util.JwtUtil;
 import com.yushan.user_service.util.RedisUtil;
+import com.yushan.user_service.security.FilterRejectionWriter;
+import com.yushan.user_service.security.GatewayReplayCache;
+import com.yushan.user_service.security.GatewaySignatureVerifier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +35,7 @@ import org.springframework.security.test.context.support.WithSecurityContext;
 import org.springframework.security.test.context.support.WithSecurityContextFactory;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -37,11 +43,13 @@ import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -106,6 +114,15 @@ public class UserControllerTest {
     @MockBean
     private UserActivityEventProducer userActivityEventProducer;
 
+    @MockBean
+    private GatewaySignatureVerifier gatewaySignatureVerifier;
+
+    @MockBean
+    private GatewayReplayCache gatewayReplayCache;
+
+    @MockBean
+    private FilterRejectionWriter filterRejectionWriter;
+
     @MockBean
     private JwtUtil jwtUtil;
 
@@ -331,6 +348,39 @@ public class UserControllerTest {
         verify(userService).getUsersByIds(requestIds);
     }
 
+    @Test
+    @WithMockUser
+    void getUsersBatch_WithCbor_ReturnsCborWithBinaryUuids() throws Exception {
+        // Arrange
+        UUID id1 = UUID.randomUUID();
+        List<UUID> requestIds = List.of(id1);
+
+        UserProfileResponseDTO user1 = new UserProfileResponseDTO();
+        user1.setUuid(id1.toString());
+        user1.setUsername("user1");
+        when(userService.getUsersByIds(requestIds)).thenReturn(List.of(user1));
+
+        CBORMapper cborMapper = new CBORMapper();
+        byte[] requestBody = cborMapper.writeValueAsBytes(requestIds);
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/v1/users/batch/get")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // Assert: UUIDs travel as 16-byte binary, not 36-char strings
+        assertEquals(1 + 1 + 16, requestBody.length);
+        JsonNode body = cborMapper.readTree(result.getResponse().getContentAsByteArray());
+        assertEquals(200, body.get("code").asInt());
+        assertEquals("user1", body.get("data").get(0).get("username").asText());
+        verify(userService).getUsersByIds(requestIds);
+    }
+
     @Test
     @WithMockUser
     void getUsersBatch_WithEmptyList_ReturnsEmptyList() throws Exception {
@@ -69,13 +69,33 @@ class ErrorCodeTest {
         assertEquals("Internal Server Error", errorCode.getMessage());
     }
 
+    @Test
+    void testTooManyRequestsErrorCode() {
+        // Given & When
+        ErrorCode errorCode = ErrorCode.TOO_MANY_REQUESTS;
+
+        // Then
+        assertEquals(429, errorCode.getCode());
+        assertEquals("Too Many Requests", errorCode.getMessage());
+    }
+
+    @Test
+    void testServiceUnavailableErrorCode() {
+        // Given & When
+        ErrorCode errorCode = ErrorCode.SERVICE_UNAVAILABLE;
+
+        // Then
+        assertEquals(503, errorCode.getCode());
+        assertEquals("Service Unavailable", errorCode.getMessage());
+    }
+
     @Test
     void testErrorCodeValues() {
         // Given & When
         ErrorCode[] values = ErrorCode.values();
 
         // Then
-        assertEquals(7, values.length);
+        assertEquals(9, values.length);
         assertArrayEquals(new ErrorCode[]{
             ErrorCode.SUCCESS,
             ErrorCode.BAD_REQUEST,
@@ -83,7 +103,9 @@ class ErrorCodeTest {
             ErrorCode.FORBIDDEN,
             ErrorCode.NOT_FOUND,
             ErrorCode.VALIDATION_ERROR,
+            ErrorCode.TOO_MANY_REQUESTS,
             ErrorCode.INTERNAL_SERVER_ERROR,
+            ErrorCode.SERVICE_UNAVAILABLE,
         }, values);
     }
 
@@ -0,0 +1,70 @@
+package com.yushan.user_service.event.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.event.dto.UserActivityEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserActivityEventCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final UserActivityEventCodec codec = new UserActivityEventCodec(objectMapper);
+
+    private final UserActivityEvent event = new UserActivityEvent(UUID.randomUUID(), "content-service",
+            "/api/v1/novels/42/chapters/7", "GET", LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000));
+
+    @Test
+    void encode_RoundTripsAllFields() {
+        assertEquals(event, codec.decode(codec.encode(event)));
+    }
+
+    @Test
+    void encode_IsMuchSmallerThanJson() throws Exception {
+        byte[] binary = codec.encode(event);
+        byte[] json = objectMapper.writeValueAsBytes(event);
+
+        assertEquals(UserActivityEventCodec.VERSION_1, binary[0]);
+        assertTrue(binary.length * 2 < json.length, binary.length + " vs " + json.length);
+    }
+
+    @Test
+    void encode_NullFieldsAndUnicode_RoundTrip() {
+        UserActivityEvent sparse = new UserActivityEvent(null, "sérvice-名前", null, "", null);
+
+        assertEquals(sparse, codec.decode(codec.encode(sparse)));
+    }
+
+    @Test
+    void encode_TimestampBeforeEpoch_RoundTrips() {
+        UserActivityEvent old = new UserActivityEvent(UUID.randomUUID(), "svc", "/", "GET",
+                LocalDateTime.of(1969, 7, 20, 20, 17, 40));
+
+        assertEquals(old, codec.decode(codec.encode(old)));
+    }
+
+    @Test
+    void decode_AcceptsJsonFromOtherProducers() throws Exception {
+        assertEquals(event, codec.decode(objectMapper.writeValueAsBytes(event)));
+    }
+
+    @Test
+    void decode_UnknownVersion_Throws() {
+        byte[] data = codec.encode(event);
+        data[0] = 9;
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(data));
+    }
+
+    @Test
+    void decode_Truncated_Throws() {
+        byte[] data = codec.encode(event);
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(Arrays.copyOf(data, data.length - 3)));
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindException;
@@ -52,6 +53,37 @@ class GlobalExceptionHandlerTest {
         assertEquals("Access denied", response.getBody().getMessage());
     }
 
+    @Test
+    void testHandleRateLimitExceededException() {
+        // Given
+        RateLimitExceededException exception = new RateLimitExceededException("too many login attempts", 17);
+
+        // When
+        ResponseEntity<ApiResponse<Object>> response = globalExceptionHandler.handleRateLimitExceededException(exception, webRequest);
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("17", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(response.getBody());
+        assertEquals(ErrorCode.TOO_MANY_REQUESTS.getCode(), response.getBody().getCode());
+        assertEquals("too many login attempts", response.getBody().getMessage());
+    }
+
+    @Test
+    void testHandleServiceOverloadedException() {
+        // Given
+        ServiceOverloadedException exception = new ServiceOverloadedException("Server is busy, please try again later", 2);
+
+        // When
+        ResponseEntity<ApiResponse<Object>> response = globalExceptionHandler.handleServiceOverloadedException(exception, webRequest);
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(response.getBody());
+        assertEquals(ErrorCode.SERVICE_UNAVAILABLE.getCode(), response.getBody().getCode());
+    }
+
     @Test
     void testHandleResourceNotFoundException() {
         // Given
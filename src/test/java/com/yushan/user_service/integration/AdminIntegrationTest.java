@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yushan.user_service.TestcontainersConfiguration;
 import com.yushan.user_service.config.DatabaseConfig;
 import com.yushan.user_service.repository.UserRepository;
+import com.yushan.user_service.dto.AdminBulkStatusUpdateDTO;
 import com.yushan.user_service.dto.AdminUpdateUserDTO;
 import com.yushan.user_service.entity.User;
 import com.yushan.user_service.enums.Gender;
@@ -28,6 +29,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -91,6 +93,29 @@ public class AdminIntegrationTest {
                 .andExpect(jsonPath("$.data.content[?(@.username == 'author_user')]").exists());
     }
 
+    @Test
+    void testScrollUsers_shouldWalkAllPagesWithoutDuplicates() throws Exception {
+        // First page
+        String firstPage = mockMvc.perform(get("/api/v1/admin/users/scroll?isAuthor=true&size=1")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(1))
+                .andExpect(jsonPath("$.data.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String firstUser = objectMapper.readTree(firstPage).at("/data/content/0/uuid").asText();
+        String cursor = objectMapper.readTree(firstPage).at("/data/nextCursor").asText();
+
+        // Second page starts strictly after the first
+        String secondPage = mockMvc.perform(get("/api/v1/admin/users/scroll?isAuthor=true&size=1&cursor=" + cursor)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(1))
+                .andReturn().getResponse().getContentAsString();
+        String secondUser = objectMapper.readTree(secondPage).at("/data/content/0/uuid").asText();
+
+        assertThat(secondUser).isNotEqualTo(firstUser);
+    }
+
     @Test
     void testUpdateUser_shouldChangeStatusAndRoleInDatabase() throws Exception {
         // Given
@@ -111,6 +136,36 @@ public class AdminIntegrationTest {
         assertThat(updatedUser.getIsAdmin()).isFalse();
     }
 
+    @Test
+    void testUpdateUserStatuses_shouldUpdateOnlyChangedUsersInDatabase() throws Exception {
+        // Given: the author is already suspended, the admin is not part of the request
+        AdminUpdateUserDTO suspend = new AdminUpdateUserDTO();
+        suspend.setStatus(UserStatus.SUSPENDED);
+        mockMvc.perform(put("/api/v1/admin/users/{uuid}/status", authorUser.getUuid())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(suspend)))
+                .andExpect(status().isOk());
+
+        AdminBulkStatusUpdateDTO requestBody = new AdminBulkStatusUpdateDTO();
+        requestBody.setUuids(List.of(normalUser.getUuid(), authorUser.getUuid(), UUID.randomUUID()));
+        requestBody.setStatus(UserStatus.SUSPENDED);
+
+        // When
+        mockMvc.perform(put("/api/v1/admin/users/status")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0]").value(normalUser.getUuid().toString()));
+
+        // Then
+        assertThat(userRepository.findById(normalUser.getUuid()).getStatus()).isEqualTo(UserStatus.SUSPENDED.getCode());
+        assertThat(userRepository.findById(authorUser.getUuid()).getStatus()).isEqualTo(UserStatus.SUSPENDED.getCode());
+        assertThat(userRepository.findById(adminUser.getUuid()).getStatus()).isEqualTo(UserStatus.NORMAL.getCode());
+    }
+
     // Helper Methods
     private void createTestData() {
         // Delete existing users if exist (from previous test runs)
@@ -0,0 +1,272 @@
+package com.yushan.user_service.integration;
+
+import com.yushan.user_service.TestcontainersConfiguration;
+import com.yushan.user_service.entity.User;
+import com.yushan.user_service.repository.UserRepository;
+import com.yushan.user_service.service.MailService;
+import com.yushan.user_service.util.MailUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for MyBatisUserRepository against real PostgreSQL
+ *
+ * This test class verifies:
+ * - Mapping of the users LEFT JOIN user_activity read
+ * - Login and last-active writes to user_activity
+ * - save() as a single INSERT ... ON CONFLICT upsert
+ */
+@SpringBootTest
+@ActiveProfiles("integration-test")
+@Import(TestcontainersConfiguration.class)
+@TestPropertySource(properties = {
+        "spring.kafka.bootstrap-servers=",
+        "spring.kafka.enabled=false",
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+        "jwt.secret=test-secret-key-for-integration-tests-123456"
+})
+@Transactional
+@org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable(named = "CI", matches = "true")
+public class UserRepositoryIntegrationTest {
+
+    private static final Date LOGIN = new Date(1_700_000_000_000L);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private MailService mailService;
+    @MockBean
+    private MailUtil mailUtil;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("repo-" + UUID.randomUUID() + "@example.com");
+        user.setUsername("repouser");
+        user.setHashPassword("hash");
+        user.setAvatarUrl("https://example.com/avatar.jpg");
+        user.setGender(1);
+        user.initializeAsNew();
+        userRepository.insert(user);
+    }
+
+    private void setActivity(Date lastLogin, Date lastActive) {
+        jdbcTemplate.update("UPDATE user_activity SET last_login = ?, last_active = ? WHERE uuid = ?",
+                new Timestamp(lastLogin.getTime()), new Timestamp(lastActive.getTime()), user.getUuid());
+    }
+
+    private void setLegacyColumns(Date lastLogin, Date lastActive) {
+        jdbcTemplate.update("UPDATE users SET last_login = ?, last_active = ? WHERE uuid = ?",
+                new Timestamp(lastLogin.getTime()), new Timestamp(lastActive.getTime()), user.getUuid());
+    }
+
+    @Test
+    void findById_MapsActivityColumnsFromJoin() {
+        setLegacyColumns(new Date(0), new Date(0));
+        setActivity(LOGIN, new Date(LOGIN.getTime() + 60_000));
+
+        User found = userRepository.findById(user.getUuid());
+
+        assertThat(found.getEmail()).isEqualTo(user.getEmail());
+        assertThat(found.getLastLogin()).isEqualTo(LOGIN);
+        assertThat(found.getLastActive()).isEqualTo(new Date(LOGIN.getTime() + 60_000));
+    }
+
+    @Test
+    void findById_NoActivityRow_FallsBackToUsersColumns() {
+        // as registered by the previous version during a rollout
+        jdbcTemplate.update("DELETE FROM user_activity WHERE uuid = ?", user.getUuid());
+        setLegacyColumns(LOGIN, LOGIN);
+
+        User found = userRepository.findByEmail(user.getEmail());
+
+        assertThat(found).isNotNull();
+        assertThat(found.getLastLogin()).isEqualTo(LOGIN);
+        assertThat(found.getLastActive()).isEqualTo(LOGIN);
+    }
+
+    @Test
+    void findById_LegacyColumnsNewer_TakesLaterValue() {
+        Date later = new Date(LOGIN.getTime() + 3_600_000);
+        setActivity(LOGIN, LOGIN);
+        setLegacyColumns(later, new Date(0));
+
+        User found = userRepository.findById(user.getUuid());
+
+        assertThat(found.getLastLogin()).isEqualTo(later);
+        assertThat(found.getLastActive()).isEqualTo(LOGIN);
+    }
+
+    @Test
+    void recordLogin_SetsLoginAndMovesLastActiveForward() {
+        setLegacyColumns(new Date(0), new Date(0));
+        setActivity(new Date(0), new Date(0));
+
+        boolean recorded = userRepository.recordLogin(user.getUuid(), LOGIN);
+
+        User found = userRepository.findById(user.getUuid());
+        assertThat(recorded).isTrue();
+        assertThat(found.getLastLogin()).isEqualTo(LOGIN);
+        assertThat(found.getLastActive()).isEqualTo(LOGIN);
+    }
+
+    @Test
+    void recordLogin_NeverMovesLastActiveBack() {
+        Date later = new Date(LOGIN.getTime() + 60_000);
+        setLegacyColumns(new Date(0), new Date(0));
+        setActivity(new Date(0), later);
+
+        userRepository.recordLogin(user.getUuid(), LOGIN);
+
+        User found = userRepository.findById(user.getUuid());
+        assertThat(found.getLastLogin()).isEqualTo(LOGIN);
+        assertThat(found.getLastActive()).isEqualTo(later);
+    }
+
+    @Test
+    void recordLogin_NoActivityRow_CreatesIt() {
+        jdbcTemplate.update("DELETE FROM user_activity WHERE uuid = ?", user.getUuid());
+
+        boolean recorded = userRepository.recordLogin(user.getUuid(), LOGIN);
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_activity WHERE uuid = ? AND last_login = ?",
+                Integer.class, user.getUuid(), new Timestamp(LOGIN.getTime()));
+        assertThat(recorded).isTrue();
+        assertThat(rows).isEqualTo(1);
+    }
+
+    @Test
+    void updateLastActive_NoActivityRow_CreatesIt() {
+        jdbcTemplate.update("DELETE FROM user_activity WHERE uuid = ?", user.getUuid());
+        setLegacyColumns(LOGIN, LOGIN);
+        Date active = new Date(LOGIN.getTime() + 60_000);
+
+        boolean updated = userRepository.updateLastActive(user.getUuid(), active);
+
+        User found = userRepository.findById(user.getUuid());
+        assertThat(updated).isTrue();
+        assertThat(found.getLastLogin()).isEqualTo(LOGIN);
+        assertThat(found.getLastActive()).isEqualTo(active);
+    }
+
+    @Test
+    void updateLastActive_NeverMovesBack() {
+        Date later = new Date(LOGIN.getTime() + 60_000);
+        setLegacyColumns(new Date(0), new Date(0));
+        setActivity(LOGIN, later);
+
+        boolean updated = userRepository.updateLastActive(user.getUuid(), LOGIN);
+
+        assertThat(updated).isFalse();
+        assertThat(userRepository.findById(user.getUuid()).getLastActive()).isEqualTo(later);
+    }
+
+    @Test
+    void updateLastActiveBatch_WritesUsersWithAndWithoutActivityRow() {
+        User other = new User();
+        other.setEmail("repo-" + UUID.randomUUID() + "@example.com");
+        other.setUsername("repouser2");
+        other.setHashPassword("hash");
+        other.setAvatarUrl("https://example.com/avatar.jpg");
+        other.setGender(1);
+        other.initializeAsNew();
+        userRepository.insert(other);
+        jdbcTemplate.update("DELETE FROM user_activity WHERE uuid = ?", user.getUuid());
+        setLegacyColumns(new Date(0), new Date(0));
+        jdbcTemplate.update("UPDATE user_activity SET last_active = ? WHERE uuid = ?",
+                new Timestamp(0), other.getUuid());
+        jdbcTemplate.update("UPDATE users SET last_active = ? WHERE uuid = ?",
+                new Timestamp(0), other.getUuid());
+
+        Map<UUID, Date> lastActive = new LinkedHashMap<>();
+        lastActive.put(user.getUuid(), LOGIN);
+        lastActive.put(other.getUuid(), LOGIN);
+        lastActive.put(UUID.randomUUID(), LOGIN);
+        int updated = userRepository.updateLastActiveBatch(lastActive);
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(userRepository.findById(user.getUuid()).getLastActive()).isEqualTo(LOGIN);
+        assertThat(userRepository.findById(other.getUuid()).getLastActive()).isEqualTo(LOGIN);
+    }
+
+    @Test
+    void save_NewUuid_InsertsUserWithActivityRow() {
+        User fresh = new User();
+        fresh.setUuid(UUID.randomUUID());
+        fresh.setEmail("repo-" + fresh.getUuid() + "@example.com");
+        fresh.setUsername("upserted");
+        fresh.setHashPassword("hash");
+        fresh.setAvatarUrl("https://example.com/avatar.jpg");
+        fresh.setGender(2);
+
+        userRepository.save(fresh);
+
+        User found = userRepository.findById(fresh.getUuid());
+        assertThat(found.getUsername()).isEqualTo("upserted");
+        assertThat(found.getGender()).isEqualTo(2);
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_activity WHERE uuid = ?", Integer.class, fresh.getUuid());
+        assertThat(rows).isEqualTo(1);
+    }
+
+    @Test
+    void save_ExistingUuid_UpdatesInPlace() {
+        User loaded = userRepository.findById(user.getUuid());
+        loaded.setUsername("renamed");
+        loaded.setProfileDetail("updated by upsert");
+
+        userRepository.save(loaded);
+
+        User found = userRepository.findById(user.getUuid());
+        assertThat(found.getUsername()).isEqualTo("renamed");
+        assertThat(found.getProfileDetail()).isEqualTo("updated by upsert");
+        assertThat(found.getEmail()).isEqualTo(user.getEmail());
+        Integer users = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE uuid = ?", Integer.class, user.getUuid());
+        assertThat(users).isEqualTo(1);
+    }
+
+    @Test
+    void save_PartialUser_FailsEvenWhenItExists() {
+        User partial = new User();
+        partial.setUuid(user.getUuid());
+        partial.setUsername("partial");
+
+        // NOT NULL is checked on the proposed insert row before ON CONFLICT
+        assertThatThrownBy(() -> userRepository.save(partial))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void recordLogin_UnknownUser_ReturnsFalse() {
+        jdbcTemplate.update("DELETE FROM user_activity WHERE uuid = ?", user.getUuid());
+        jdbcTemplate.update("DELETE FROM users WHERE uuid = ?", user.getUuid());
+
+        assertThat(userRepository.recordLogin(user.getUuid(), LOGIN)).isFalse();
+    }
+}
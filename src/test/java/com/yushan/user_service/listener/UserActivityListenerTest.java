@@ -3,20 +3,33 @@ package com.yushan.user_service.listener;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.yushan.user_service.service.IdempotencyService;
+import com.yushan.user_service.event.codec.UserActivityEventCodec;
+import com.yushan.user_service.event.dto.UserActivityEvent;
 import com.yushan.user_service.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -32,12 +45,42 @@ class UserActivityListenerTest {
             .registerModule(new JavaTimeModule())
             .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
-    @Mock
-    private IdempotencyService idempotencyService;
+    @Spy
+    private UserActivityEventCodec userActivityEventCodec = new UserActivityEventCodec(objectMapper);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private UserActivityListener userActivityListener;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userActivityListener, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(userActivityListener, "workers", 2);
+        ReflectionTestUtils.setField(userActivityListener, "workerQueueCapacity", 4);
+        userActivityListener.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userActivityListener.shutdown();
+    }
+
+    private static List<ConsumerRecord<String, byte[]>> batch(byte[]... payloads) {
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        for (int i = 0; i < payloads.length; i++) {
+            records.add(new ConsumerRecord<>("active", 0, i, null, payloads[i]));
+        }
+        return records;
+    }
+
+    private byte[] activity(UUID userId, LocalDateTime timestamp) throws Exception {
+        Map<String, Object> payloadMap = new HashMap<>();
+        payloadMap.put("userId", userId.toString());
+        payloadMap.put("timestamp", timestamp.toString());
+        return objectMapper.writeValueAsBytes(payloadMap);
+    }
+
     @Test
     void handleUserActivity_shouldUpdateLastActiveTime_whenUserIdIsNotNull() throws Exception {
         UUID userId = UUID.randomUUID();
@@ -47,16 +90,11 @@ class UserActivityListenerTest {
         payloadMap.put("userId", userId.toString());
         payloadMap.put("timestamp", timestamp.toString());
 
-        String payload = objectMapper.writeValueAsString(payloadMap);
-        
-        when(idempotencyService.isProcessed(anyString(), eq("UserActivity"))).thenReturn(false); // Not processed yet
-        doNothing().when(idempotencyService).markAsProcessed(anyString(), eq("UserActivity"));
+        byte[] payload = objectMapper.writeValueAsBytes(payloadMap);
 
-        userActivityListener.handleUserActivity(payload);
+        userActivityListener.handleUserActivity(batch(payload));
 
-        verify(idempotencyService).isProcessed(anyString(), eq("UserActivity"));
         verify(userService, times(1)).updateLastActiveTime(eq(userId), eq(timestamp));
-        verify(idempotencyService).markAsProcessed(anyString(), eq("UserActivity"));
     }
 
     @Test
@@ -67,24 +105,76 @@ class UserActivityListenerTest {
         payloadMap.put("userId", null);
         payloadMap.put("timestamp", timestamp.toString());
 
-        String payload = objectMapper.writeValueAsString(payloadMap);
+        byte[] payload = objectMapper.writeValueAsBytes(payloadMap);
 
-        userActivityListener.handleUserActivity(payload);
+        userActivityListener.handleUserActivity(batch(payload));
 
         verify(userService, never()).updateLastActiveTime(any(), any());
     }
 
     @Test
-    void handleUserActivity_shouldNotUpdateLastActiveTime_whenPayloadIsInvalidJson() {
-        String invalidPayload = "not a json";
-
-        // When & Then
-        try {
-            userActivityListener.handleUserActivity(invalidPayload);
-        } catch (RuntimeException e) {
-            // Expected: RuntimeException is thrown to trigger Kafka retry
+    void handleUserActivity_shouldUpdateLastActiveTime_whenPayloadIsBinary() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime timestamp = LocalDateTime.now().withNano(0);
+        byte[] payload = userActivityEventCodec.encode(
+                new UserActivityEvent(userId, "content-service", "/api/v1/novels", "GET", timestamp));
+
+        userActivityListener.handleUserActivity(batch(payload));
+
+        verify(userService).updateLastActiveTime(eq(userId), eq(timestamp));
+    }
+
+    @Test
+    void handleUserActivity_invalidPayload_shouldReportItsIndex() throws Exception {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime timestamp = LocalDateTime.now().withNano(0);
+        byte[] invalidPayload = "{not json".getBytes(StandardCharsets.UTF_8);
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> userActivityListener.handleUserActivity(batch(activity(userId, timestamp), invalidPayload)));
+
+        // the error handler commits record 0 and dead-letters record 1 without retrying it
+        assertEquals(1, e.getIndex());
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        verify(userService).updateLastActiveTime(userId, timestamp);
+    }
+
+    @Test
+    void handleUserActivity_updateFails_shouldReportFirstFailedIndex() throws Exception {
+        UUID failing = UUID.randomUUID();
+        UUID healthy = UUID.randomUUID();
+        LocalDateTime timestamp = LocalDateTime.now().withNano(0);
+        doAnswer(invocation -> {
+            if (failing.equals(invocation.getArgument(0))) {
+                throw new IllegalStateException("db down");
+            }
+            return null;
+        }).when(userService).updateLastActiveTime(any(), any());
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> userActivityListener.handleUserActivity(
+                        batch(activity(healthy, timestamp), activity(failing, timestamp), activity(failing, timestamp))));
+
+        assertEquals(1, e.getIndex());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        verify(userService).updateLastActiveTime(healthy, timestamp);
+    }
+
+    @Test
+    void handleUserActivity_sameUser_shouldApplyInOffsetOrder() throws Exception {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime first = LocalDateTime.now().withNano(0);
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            payloads.add(activity(userId, first.plusMinutes(i)));
         }
 
-        verify(userService, never()).updateLastActiveTime(any(), any());
+        userActivityListener.handleUserActivity(batch(payloads.toArray(new byte[0][])));
+
+        InOrder inOrder = inOrder(userService);
+        for (int i = 0; i < 20; i++) {
+            inOrder.verify(userService).updateLastActiveTime(userId, first.plusMinutes(i));
+        }
+        assertEquals(20, meterRegistry.get("user.activity.record.processing").timer().count());
     }
 }
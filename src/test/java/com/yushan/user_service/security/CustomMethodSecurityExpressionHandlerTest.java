@@ -0,0 +1,95 @@
+package com.yushan.user_service.security;
+
+import com.yushan.user_service.entity.User;
+import com.yushan.user_service.security.CustomUserDetailsService.CustomUserDetails;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.lang.reflect.Method;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CustomMethodSecurityExpressionHandler
+ */
+class CustomMethodSecurityExpressionHandlerTest {
+
+    private CustomMethodSecurityExpressionHandler handler;
+    private Authentication authentication;
+    private String userId;
+
+    @SuppressWarnings("unused")
+    static class SampleService {
+        public void update(String resourceOwnerId, int page) {
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        handler = new CustomMethodSecurityExpressionHandler();
+        handler.setBeanFactory(mock(BeanFactory.class));
+
+        User user = new User();
+        user.setUuid(UUID.randomUUID());
+        user.setEmail("owner@example.com");
+        user.setIsAuthor(false);
+        user.setIsAdmin(false);
+        CustomUserDetails userDetails = new CustomUserDetails(user);
+        userId = userDetails.getUserId();
+        authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private MethodInvocation invocation(Object... args) throws NoSuchMethodException {
+        Method method = SampleService.class.getMethod("update", String.class, int.class);
+        MethodInvocation mi = mock(MethodInvocation.class);
+        when(mi.getMethod()).thenReturn(method);
+        when(mi.getArguments()).thenReturn(args);
+        when(mi.getThis()).thenReturn(new SampleService());
+        return mi;
+    }
+
+    @Test
+    void getExpressionParser_ReturnsSharedInstance() {
+        assertSame(handler.getExpressionParser(), handler.getExpressionParser());
+    }
+
+    @Test
+    void createEvaluationContext_BindsParameterNamesAndReusesBeanResolver() throws Exception {
+        StandardEvaluationContext first = (StandardEvaluationContext) handler.createEvaluationContext(authentication, invocation(userId, 1));
+        StandardEvaluationContext second = (StandardEvaluationContext) handler.createEvaluationContext(authentication, invocation("other", 2));
+
+        assertEquals(userId, first.lookupVariable("resourceOwnerId"));
+        assertEquals(2, second.lookupVariable("page"));
+        assertNotNull(first.getBeanResolver());
+        assertSame(first.getBeanResolver(), second.getBeanResolver());
+    }
+
+    @Test
+    void expression_CompiledEvaluation_MatchesInterpreted() throws Exception {
+        Expression expression = handler.getExpressionParser().parseExpression("isAuthenticated() and !hasRole('ADMIN')");
+
+        // interpret once so the compiler has the runtime types, then compile
+        assertTrue(expression.getValue(handler.createEvaluationContext(authentication, invocation(userId, 0)), Boolean.class));
+        assertTrue(((SpelExpression) expression).compileExpression());
+
+        Authentication admin = new UsernamePasswordAuthenticationToken("admin", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+        for (int i = 0; i < 5; i++) {
+            EvaluationContext user = handler.createEvaluationContext(authentication, invocation(userId, i));
+            EvaluationContext adminContext = handler.createEvaluationContext(admin, invocation(userId, i));
+            assertTrue(expression.getValue(user, Boolean.class));
+            assertFalse(expression.getValue(adminContext, Boolean.class));
+        }
+    }
+}
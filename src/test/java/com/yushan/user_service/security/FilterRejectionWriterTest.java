@@ -0,0 +1,84 @@
+package com.yushan.user_service.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FilterRejectionWriter
+ */
+class FilterRejectionWriterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FilterRejectionWriter writer;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new FilterRejectionWriter();
+        ReflectionTestUtils.setField(writer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(writer, "logIntervalMs", 60_000L);
+        writer.init();
+        request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+    }
+
+    @Test
+    void reject_WritesForbiddenJsonWithContentLength() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.reject(request, response, FilterRejectionWriter.Reason.USER_DISABLED, "user-1");
+
+        assertEquals(403, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertEquals("{\"error\":\"Forbidden\",\"message\":\"User account is disabled or suspended\",\"status\":403}",
+                response.getContentAsString());
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+    }
+
+    @Test
+    void reject_EachReasonHasItsOwnMessage() throws Exception {
+        for (FilterRejectionWriter.Reason reason : FilterRejectionWriter.Reason.values()) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            writer.reject(request, response, reason, null);
+
+            assertTrue(response.getContentAsString().contains("\"message\":\"" + reason.getMessage() + "\""));
+        }
+    }
+
+    @Test
+    void reject_CountsPerReason() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            writer.reject(request, new MockHttpServletResponse(), FilterRejectionWriter.Reason.INVALID_SIGNATURE, "user-1");
+        }
+        writer.reject(request, new MockHttpServletResponse(), FilterRejectionWriter.Reason.REPLAYED_SIGNATURE, "user-1");
+
+        assertEquals(3.0, meterRegistry.get("security.filter.rejections").tag("reason", "invalid_signature").counter().count());
+        assertEquals(1.0, meterRegistry.get("security.filter.rejections").tag("reason", "replayed_signature").counter().count());
+        assertEquals(0.0, meterRegistry.get("security.filter.rejections").tag("reason", "user_not_found").counter().count());
+    }
+
+    @Test
+    void reject_WithinLogInterval_SuppressesWarnings() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            writer.reject(request, new MockHttpServletResponse(), FilterRejectionWriter.Reason.USER_NOT_FOUND, "user-" + i);
+        }
+
+        // the first rejection is logged, the other four wait for the next interval
+        @SuppressWarnings("unchecked")
+        Map<FilterRejectionWriter.Reason, LongAdder> suppressed =
+                (Map<FilterRejectionWriter.Reason, LongAdder>)
+                        ReflectionTestUtils.getField(writer, "suppressed");
+        assertEquals(4, suppressed.get(FilterRejectionWriter.Reason.USER_NOT_FOUND).sum());
+        assertEquals(0, suppressed.get(FilterRejectionWriter.Reason.INVALID_SIGNATURE).sum());
+    }
+}
@@ -0,0 +1,193 @@
+package com.yushan.user_service.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GatewayReplayCache
+ */
+class GatewayReplayCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private GatewayReplayCache newCache(int maxEntriesPerMinute, boolean failClosed) {
+        meterRegistry = new SimpleMeterRegistry();
+        GatewayReplayCache cache = new GatewayReplayCache();
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cache, "maxEntriesPerMinute", maxEntriesPerMinute);
+        ReflectionTestUtils.setField(cache, "failClosed", failClosed);
+        cache.init();
+        return cache;
+    }
+
+    private GatewayReplayCache newCache() {
+        return newCache(1000, false);
+    }
+
+    // 32 random bytes, like an HMAC-SHA256 signature
+    private static byte[] mac() {
+        byte[] mac = new byte[32];
+        ThreadLocalRandom.current().nextBytes(mac);
+        return mac;
+    }
+
+    private static String signature(byte[] mac) {
+        return Base64.getEncoder().encodeToString(mac);
+    }
+
+    @Test
+    void remember_FirstUse_IsAccepted() {
+        GatewayReplayCache cache = newCache();
+
+        assertEquals(GatewayReplayCache.Result.ACCEPTED, cache.remember(System.currentTimeMillis(), signature(mac())));
+    }
+
+    @Test
+    void remember_SecondUse_IsReplay() {
+        GatewayReplayCache cache = newCache();
+        long timestamp = System.currentTimeMillis();
+        String signature = signature(mac());
+
+        cache.remember(timestamp, signature);
+
+        assertEquals(GatewayReplayCache.Result.REPLAYED, cache.remember(timestamp, signature));
+        assertEquals(1.0, meterRegistry.get("gateway.replay.cache").tag("result", "replay").counter().count());
+    }
+
+    @Test
+    void remember_UnpaddedSignature_IsSameUse() {
+        GatewayReplayCache cache = newCache();
+        long timestamp = System.currentTimeMillis();
+        String signature = signature(mac());
+        cache.remember(timestamp, signature);
+
+        String unpadded = signature.substring(0, signature.length() - 1);
+
+        assertEquals(GatewayReplayCache.Result.REPLAYED, cache.remember(timestamp, unpadded));
+    }
+
+    @Test
+    void remember_SignatureWithAlteredUnusedBits_IsSameUse() {
+        GatewayReplayCache cache = newCache();
+        long timestamp = System.currentTimeMillis();
+        byte[] mac = mac();
+        String signature = signature(mac);
+        cache.remember(timestamp, signature);
+
+        // the last character before '=' carries 4 bits of the MAC and 2 unused ones
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        char last = signature.charAt(42);
+        String variant = signature.substring(0, 42) + alphabet.charAt(alphabet.indexOf(last) ^ 1) + "=";
+
+        assertNotEquals(signature, variant);
+        assertArrayEquals(mac, Base64.getDecoder().decode(variant));
+        assertEquals(GatewayReplayCache.Result.REPLAYED, cache.remember(timestamp, variant));
+    }
+
+    @Test
+    void remember_DifferentSignatures_AreTrackedSeparately() {
+        GatewayReplayCache cache = newCache();
+        long timestamp = System.currentTimeMillis();
+        cache.remember(timestamp, signature(mac()));
+
+        assertEquals(GatewayReplayCache.Result.ACCEPTED, cache.remember(timestamp, signature(mac())));
+    }
+
+    @Test
+    void remember_MinuteFull_FailsOpenAndCountsOverflow() {
+        // 64 per minute -> one entry per segment; the first byte picks the segment
+        GatewayReplayCache cache = newCache(64, false);
+        long timestamp = System.currentTimeMillis();
+        byte[] first = mac();
+        byte[] second = mac();
+        second[0] = first[0];
+
+        assertEquals(GatewayReplayCache.Result.ACCEPTED, cache.remember(timestamp, signature(first)));
+        assertEquals(GatewayReplayCache.Result.UNTRACKED, cache.remember(timestamp, signature(second)));
+
+        // not tracked, so a second use is not detected
+        assertEquals(GatewayReplayCache.Result.UNTRACKED, cache.remember(timestamp, signature(second)));
+        assertEquals(GatewayReplayCache.Result.REPLAYED, cache.remember(timestamp, signature(first)));
+        assertEquals(2.0, meterRegistry.get("gateway.replay.cache").tag("result", "overflow").counter().count());
+    }
+
+    @Test
+    void remember_MinuteFull_FailClosed_Rejects() {
+        GatewayReplayCache cache = newCache(64, true);
+        long timestamp = System.currentTimeMillis();
+        byte[] first = mac();
+        byte[] second = mac();
+        second[0] = first[0];
+        cache.remember(timestamp, signature(first));
+
+        assertEquals(GatewayReplayCache.Result.REJECTED_FULL, cache.remember(timestamp, signature(second)));
+    }
+
+    @Test
+    void remember_NextMinute_HasItsOwnCapacity() {
+        GatewayReplayCache cache = newCache(64, false);
+        long timestamp = System.currentTimeMillis();
+        byte[] first = mac();
+        byte[] second = mac();
+        second[0] = first[0];
+        cache.remember(timestamp, signature(first));
+
+        assertEquals(GatewayReplayCache.Result.ACCEPTED, cache.remember(timestamp + 60_000, signature(second)));
+    }
+
+    @Test
+    void remember_ManyEntries_GrowsWithoutLosingAny() {
+        GatewayReplayCache cache = newCache(100_000, false);
+        long timestamp = System.currentTimeMillis();
+        List<String> signatures = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            signatures.add(signature(mac()));
+        }
+
+        for (String signature : signatures) {
+            assertEquals(GatewayReplayCache.Result.ACCEPTED, cache.remember(timestamp, signature));
+        }
+        for (String signature : signatures) {
+            assertEquals(GatewayReplayCache.Result.REPLAYED, cache.remember(timestamp, signature));
+        }
+    }
+
+    @Test
+    void remember_ConcurrentIdenticalRequests_OnlyOneAccepted() throws Exception {
+        GatewayReplayCache cache = newCache();
+        long timestamp = System.currentTimeMillis();
+        String signature = signature(mac());
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(pool.submit(() -> {
+                    if (cache.remember(timestamp, signature) == GatewayReplayCache.Result.ACCEPTED) {
+                        accepted.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, accepted.get());
+    }
+}
@@ -0,0 +1,127 @@
+package com.yushan.user_service.security;
+
+import com.yushan.user_service.util.HmacUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GatewaySignatureVerifier
+ */
+class GatewaySignatureVerifierTest {
+
+    private static final String SECRET = "current-gateway-secret";
+    private static final String OLD_SECRET = "previous-gateway-secret";
+
+    private MockEnvironment environment;
+    private GatewaySignatureVerifier verifier;
+
+    private final String userId = UUID.randomUUID().toString();
+    private final String email = "test@example.com";
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment().withProperty("gateway.hmac.secret", SECRET);
+        verifier = new GatewaySignatureVerifier();
+        ReflectionTestUtils.setField(verifier, "environment", environment);
+        verifier.init();
+    }
+
+    @Test
+    void verify_ValidSignature_ReturnsTrue() throws Exception {
+        long timestamp = System.currentTimeMillis();
+        String signature = sign(SECRET, userId, email, "AUTHOR", timestamp);
+
+        assertTrue(verifier.verify(userId, email, "AUTHOR", timestamp, signature));
+        // same result as the legacy static verifier
+        assertTrue(HmacUtil.verifySignature(userId, email, "AUTHOR", timestamp, signature, SECRET));
+    }
+
+    @Test
+    void verify_NullRole_DefaultsToUser() throws Exception {
+        long timestamp = System.currentTimeMillis();
+        String signature = sign(SECRET, userId, email, "USER", timestamp);
+
+        assertTrue(verifier.verify(userId, email, null, timestamp, signature));
+    }
+
+    @Test
+    void verify_NonAsciiEmail_ReturnsTrue() throws Exception {
+        long timestamp = System.currentTimeMillis();
+        String unicodeEmail = "tác-giả@example.com";
+        String signature = sign(SECRET, userId, unicodeEmail, "USER", timestamp);
+
+        assertTrue(verifier.verify(userId, unicodeEmail, "USER", timestamp, signature));
+    }
+
+    @Test
+    void verify_TamperedHeaders_ReturnsFalse() throws Exception {
+        long timestamp = System.currentTimeMillis();
+        String signature = sign(SECRET, userId, email, "USER", timestamp);
+
+        assertFalse(verifier.verify(userId, email, "ADMIN", timestamp, signature));
+        assertFalse(verifier.verify(userId, email, "USER", timestamp + 1, signature));
+    }
+
+    @Test
+    void verify_ExpiredTimestamp_ReturnsFalse() throws Exception {
+        long timestamp = System.currentTimeMillis() - 6 * 60 * 1000;
+        String signature = sign(SECRET, userId, email, "USER", timestamp);
+
+        assertFalse(verifier.verify(userId, email, "USER", timestamp, signature));
+    }
+
+    @Test
+    void verify_MalformedSignature_ReturnsFalse() {
+        long timestamp = System.currentTimeMillis();
+
+        assertFalse(verifier.verify(userId, email, "USER", timestamp, "not base64!"));
+        assertFalse(verifier.verify(userId, email, "USER", timestamp, Base64.getEncoder().encodeToString(new byte[8])));
+        assertFalse(verifier.verify(userId, email, "USER", timestamp, null));
+    }
+
+    @Test
+    void verify_AfterRotation_AcceptsCurrentAndPreviousSecrets() throws Exception {
+        long timestamp = System.currentTimeMillis();
+        String oldSignature = sign(OLD_SECRET, userId, email, "USER", timestamp);
+        assertFalse(verifier.verify(userId, email, "USER", timestamp, oldSignature));
+
+        // rotate: new current secret, old one still accepted during rollout
+        environment.setProperty("gateway.hmac.secret", "rotated-gateway-secret");
+        environment.setProperty("gateway.hmac.previous-secrets", OLD_SECRET + ", " + SECRET);
+        verifier.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("gateway.hmac.secret")));
+
+        assertTrue(verifier.verify(userId, email, "USER", timestamp, oldSignature));
+        assertTrue(verifier.verify(userId, email, "USER", timestamp, sign(SECRET, userId, email, "USER", timestamp)));
+        assertTrue(verifier.verify(userId, email, "USER", timestamp,
+                sign("rotated-gateway-secret", userId, email, "USER", timestamp)));
+    }
+
+    @Test
+    void onEnvironmentChange_UnrelatedKeys_KeepsKeys() throws Exception {
+        long timestamp = System.currentTimeMillis();
+        environment.setProperty("gateway.hmac.secret", "rotated-gateway-secret");
+
+        verifier.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("logging.level.root")));
+
+        assertTrue(verifier.verify(userId, email, "USER", timestamp, sign(SECRET, userId, email, "USER", timestamp)));
+    }
+
+    private static String sign(String secret, String userId, String email, String role, long timestamp) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String message = String.format("%s|%s|%s|%d", userId, email, role, timestamp);
+        return Base64.getEncoder().encodeToString(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+    }
+}
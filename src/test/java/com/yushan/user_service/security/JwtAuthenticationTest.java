@@ -1,6 +1,7 @@
 package com.yushan.user_service.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.dao.UserActivityMapper;
 import com.yushan.user_service.dao.UserMapper;
 import com.yushan.user_service.entity.User;
 import com.yushan.user_service.enums.ErrorCode;
@@ -73,6 +74,9 @@ public class JwtAuthenticationTest {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private UserActivityMapper userActivityMapper;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -138,6 +142,7 @@ public class JwtAuthenticationTest {
         testUser.setCreateTime(new Date());
         testUser.setUpdateTime(new Date());
         userMapper.insert(testUser);
+        userActivityMapper.insert(testUser.getUuid());
 
         // Create author user
         authorUser = new User();
@@ -155,6 +160,7 @@ public class JwtAuthenticationTest {
         authorUser.setCreateTime(new Date());
         authorUser.setUpdateTime(new Date());
         userMapper.insert(authorUser);
+        userActivityMapper.insert(authorUser.getUuid());
 
         // Generate tokens
         testUserToken = jwtUtil.generateAccessToken(testUser);
@@ -180,6 +186,7 @@ public class JwtAuthenticationTest {
         user.setCreateTime(new Date());
         user.setUpdateTime(new Date());
         userMapper.insert(user);
+        userActivityMapper.insert(user.getUuid());
         return user;
     }
 
@@ -10,6 +10,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
@@ -17,9 +18,13 @@ import org.springframework.test.context.TestPropertySource;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -301,4 +306,49 @@ public class SecurityExpressionRootTest {
         
         assertFalse(securityExpressionRoot.hasAuthority("DELETE"), "User without DELETE authority should return false for hasAuthority('DELETE')");
     }
+
+    @Test
+    void testHasAnyAuthorityMixesRoleAndCustomAuthorities() {
+        Authentication auth = createAuthentication(regularUser, "ROLE_USER", "READ");
+        securityExpressionRoot = new SecurityExpressionRoot(auth);
+
+        assertTrue(securityExpressionRoot.hasAnyAuthority("ROLE_ADMIN", "READ"), "Custom authority should still match");
+        assertTrue(securityExpressionRoot.hasAnyAuthority("ROLE_USER"), "Role authority should match via the role mask");
+        assertFalse(securityExpressionRoot.hasAnyAuthority("ROLE_ADMIN", "WRITE"), "No listed authority is granted");
+    }
+
+    @Test
+    void testHasRoleWithCustomRole() {
+        Authentication auth = createAuthentication(regularUser, "ROLE_USER", "ROLE_MODERATOR");
+        securityExpressionRoot = new SecurityExpressionRoot(auth);
+
+        assertTrue(securityExpressionRoot.hasRole("MODERATOR"), "Roles outside USER/AUTHOR/ADMIN fall back to a string match");
+        assertFalse(securityExpressionRoot.hasRole("ADMIN"), "ADMIN is not granted");
+    }
+
+    @Test
+    void testGetAuthenticationReturnsSameInstance() {
+        Authentication auth = createAuthentication(regularUser, "ROLE_USER");
+        securityExpressionRoot = new SecurityExpressionRoot(auth);
+
+        assertSame(auth, securityExpressionRoot.getAuthentication(), "Authentication should not be copied per call");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCustomUserDetailsAuthoritiesAreSharedAndImmutable() {
+        Collection<? extends GrantedAuthority> first = new CustomUserDetails(adminUser).getAuthorities();
+        User anotherAdmin = new User();
+        anotherAdmin.setUuid(UUID.randomUUID());
+        anotherAdmin.setIsAdmin(true);
+        Collection<? extends GrantedAuthority> second = new CustomUserDetails(anotherAdmin).getAuthorities();
+
+        assertSame(first, second, "Users with the same roles should share one authority list");
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"),
+                first.stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(List.of("ROLE_USER", "ROLE_AUTHOR"),
+                new CustomUserDetails(authorUser).getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertThrows(UnsupportedOperationException.class,
+                () -> ((Collection<GrantedAuthority>) first).add(new SimpleGrantedAuthority("ROLE_HACKER")));
+    }
 }
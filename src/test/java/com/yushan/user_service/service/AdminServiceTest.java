@@ -2,12 +2,16 @@ package com.yushan.user_service.service;
 
 import com.yushan.user_service.repository.UserRepository;
 import com.yushan.user_service.dto.AdminUserFilterDTO;
+import com.yushan.user_service.dto.CursorPageResponseDTO;
 import com.yushan.user_service.dto.PageResponseDTO;
+import com.yushan.user_service.dto.UserCursor;
 import com.yushan.user_service.dto.UserProfileResponseDTO;
 import com.yushan.user_service.entity.User;
+import com.yushan.user_service.entity.UserStatusChange;
 import com.yushan.user_service.enums.UserStatus;
 import com.yushan.user_service.event.UserStatusEventProducer;
 import com.yushan.user_service.exception.ResourceNotFoundException;
+import com.yushan.user_service.exception.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,11 +22,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -38,6 +42,12 @@ class AdminServiceTest {
     @Mock
     private UserStatusEventProducer userStatusEventProducer;
 
+    @Mock
+    private BlockedUserIndex blockedUserIndex;
+
+    @Mock
+    private UserCounterService userCounterService;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -53,6 +63,15 @@ class AdminServiceTest {
         testUser.setUsername("testuser");
     }
 
+    private static UserStatusChange change(UUID uuid, UserStatus oldStatus, boolean isAuthor) {
+        UserStatusChange change = new UserStatusChange();
+        change.setUuid(uuid);
+        change.setOldStatus(oldStatus.getCode());
+        change.setIsAuthor(isAuthor);
+        change.setIsAdmin(false);
+        return change;
+    }
+
     @Nested
     @DisplayName("listUsers Tests")
     class ListUsers {
@@ -66,7 +85,7 @@ class AdminServiceTest {
             int offset = 0;
             List<User> users = Collections.singletonList(testUser);
 
-            when(userRepository.countUsersForAdmin(filter)).thenReturn(1L);
+            when(userCounterService.count(filter)).thenReturn(1L);
             when(userRepository.findUsersForAdmin(filter, offset)).thenReturn(users);
 
             // When
@@ -76,11 +95,72 @@ class AdminServiceTest {
             assertEquals(1, result.getTotalElements());
             assertEquals(1, result.getContent().size());
             assertEquals(testUser.getUsername(), result.getContent().get(0).getUsername());
-            verify(userRepository).countUsersForAdmin(filter);
+            verify(userCounterService).count(filter);
+            verify(userRepository, never()).countUsersForAdmin(any());
             verify(userRepository).findUsersForAdmin(filter, offset);
         }
     }
 
+    @Nested
+    @DisplayName("scrollUsers Tests")
+    class ScrollUsers {
+        private User userCreatedAt(long createTime) {
+            User user = new User();
+            user.setUuid(UUID.randomUUID());
+            user.setUsername("user-" + createTime);
+            user.setCreateTime(new Date(createTime));
+            return user;
+        }
+
+        @Test
+        @DisplayName("Should return next cursor when more rows exist")
+        void shouldReturnNextCursor() {
+            // Given
+            AdminUserFilterDTO filter = new AdminUserFilterDTO();
+            filter.setSize(2);
+            User first = userCreatedAt(3000);
+            User second = userCreatedAt(2000);
+            User third = userCreatedAt(1000);
+            when(userRepository.findUsersForAdminAfter(filter, null, 3)).thenReturn(List.of(first, second, third));
+
+            // When
+            CursorPageResponseDTO<UserProfileResponseDTO> result = adminService.scrollUsers(filter, null);
+
+            // Then
+            assertEquals(2, result.getContent().size());
+            assertTrue(result.isHasNext());
+            assertEquals(new UserCursor(2000, second.getUuid()), UserCursor.decode(result.getNextCursor()));
+            verify(userRepository, never()).countUsersForAdmin(any());
+        }
+
+        @Test
+        @DisplayName("Should pass the decoded cursor and end on the last page")
+        void shouldEndOnLastPage() {
+            // Given
+            AdminUserFilterDTO filter = new AdminUserFilterDTO();
+            filter.setSize(2);
+            UserCursor cursor = new UserCursor(2000, UUID.randomUUID());
+            when(userRepository.findUsersForAdminAfter(filter, cursor, 3)).thenReturn(List.of(userCreatedAt(1000)));
+
+            // When
+            CursorPageResponseDTO<UserProfileResponseDTO> result = adminService.scrollUsers(filter, cursor.encode());
+
+            // Then
+            assertEquals(1, result.getContent().size());
+            assertFalse(result.isHasNext());
+            assertNull(result.getNextCursor());
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed cursor")
+        void shouldRejectMalformedCursor() {
+            AdminUserFilterDTO filter = new AdminUserFilterDTO();
+
+            assertThrows(ValidationException.class, () -> adminService.scrollUsers(filter, "not-a-cursor"));
+            verify(userRepository, never()).findUsersForAdminAfter(any(), any(), anyInt());
+        }
+    }
+
     @Nested
     @DisplayName("updateUserStatus Tests")
     class UpdateUserStatus {
@@ -88,7 +168,8 @@ class AdminServiceTest {
         @DisplayName("Should update user status successfully")
         void shouldUpdateStatus() {
             // Given
-            when(userRepository.findById(testUserUuid)).thenReturn(testUser);
+            when(userRepository.updateStatuses(List.of(testUserUuid), UserStatus.BANNED.getCode()))
+                    .thenReturn(List.of(change(testUserUuid, UserStatus.NORMAL, false)));
             // Mock TransactionAwareKafkaPublisher to execute the Runnable immediately (no transaction in test)
             doAnswer(invocation -> {
                 Runnable runnable = invocation.getArgument(0);
@@ -100,24 +181,100 @@ class AdminServiceTest {
             adminService.updateUserStatus(testUserUuid, UserStatus.BANNED);
 
             // Then
-            verify(userRepository).save(argThat(user ->
-                    user.getUuid().equals(testUserUuid) &&
-                            user.getStatus().equals(UserStatus.BANNED.ordinal())
-            ));
+            verify(userRepository, never()).findById(any());
+            verify(userRepository, never()).update(any());
             verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
-            verify(userStatusEventProducer).sendUserStatusChangedEvent(any());
+            verify(blockedUserIndex).recordChanges(List.of(change(testUserUuid, UserStatus.NORMAL, false)), UserStatus.BANNED);
+            verify(blockedUserIndex).poll();
+            verify(userCounterService).recordMoved(
+                    new UserCounterService.Bucket(UserStatus.NORMAL.getCode(), false, false),
+                    new UserCounterService.Bucket(UserStatus.BANNED.getCode(), false, false));
+            verify(userStatusEventProducer).sendUserStatusChangedEvent(argThat(event ->
+                    event.getOldStatus().equals("NORMAL") && event.getNewStatus().equals("BANNED")));
+        }
+
+        @Test
+        @DisplayName("Should do nothing when the user already has the status")
+        void shouldSkipWhenStatusUnchanged() {
+            // Given
+            when(userRepository.updateStatuses(List.of(testUserUuid), UserStatus.BANNED.getCode()))
+                    .thenReturn(List.of());
+            when(userRepository.findById(testUserUuid)).thenReturn(testUser);
+
+            // When
+            adminService.updateUserStatus(testUserUuid, UserStatus.BANNED);
+
+            // Then
+            verifyNoInteractions(userCounterService, transactionAwareKafkaPublisher, userStatusEventProducer);
         }
 
         @Test
         @DisplayName("Should throw ResourceNotFoundException when user to update is not found")
         void shouldThrowWhenUpdatingNonExistentUser() {
             // Given
+            when(userRepository.updateStatuses(List.of(testUserUuid), UserStatus.BANNED.getCode()))
+                    .thenReturn(List.of());
             when(userRepository.findById(testUserUuid)).thenReturn(null);
 
             // When & Then
             assertThrows(ResourceNotFoundException.class, () ->
                     adminService.updateUserStatus(testUserUuid, UserStatus.BANNED));
-            verify(userRepository, never()).save(any());
+            verifyNoInteractions(userCounterService, userStatusEventProducer);
+        }
+    }
+
+    @Nested
+    @DisplayName("updateUserStatuses Tests")
+    class UpdateUserStatuses {
+        @Test
+        @DisplayName("Should update all users with one statement and publish events together")
+        void shouldUpdateInOneStatement() {
+            // Given
+            UUID other = UUID.randomUUID();
+            when(userRepository.updateStatuses(List.of(testUserUuid, other), UserStatus.BANNED.getCode()))
+                    .thenReturn(List.of(change(testUserUuid, UserStatus.NORMAL, false),
+                            change(other, UserStatus.SUSPENDED, true)));
+            doAnswer(invocation -> {
+                Runnable runnable = invocation.getArgument(0);
+                runnable.run();
+                return null;
+            }).when(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
+
+            // When
+            List<UUID> updated = adminService.updateUserStatuses(
+                    List.of(testUserUuid, other, testUserUuid), UserStatus.BANNED);
+
+            // Then
+            assertEquals(List.of(testUserUuid, other), updated);
+            verify(userRepository, never()).findById(any());
+            verify(userRepository, never()).update(any());
+            verify(userCounterService).recordStatusChanges(List.of(
+                    new UserCounterService.Bucket(UserStatus.NORMAL.getCode(), false, false),
+                    new UserCounterService.Bucket(UserStatus.SUSPENDED.getCode(), true, false)), UserStatus.BANNED);
+            verify(blockedUserIndex).recordChanges(List.of(change(testUserUuid, UserStatus.NORMAL, false),
+                    change(other, UserStatus.SUSPENDED, true)), UserStatus.BANNED);
+            verify(blockedUserIndex).poll();
+            verify(userStatusEventProducer).sendUserStatusChangedEvents(argThat(events ->
+                    events.size() == 2
+                            && events.get(0).getOldStatus().equals("NORMAL")
+                            && events.get(1).getOldStatus().equals("SUSPENDED")
+                            && events.stream().allMatch(e -> e.getNewStatus().equals("BANNED"))));
+            verify(userStatusEventProducer, never()).sendUserStatusChangedEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should not publish anything when no status changed")
+        void shouldSkipWhenNothingChanged() {
+            // Given
+            when(userRepository.updateStatuses(List.of(testUserUuid), UserStatus.NORMAL.getCode()))
+                    .thenReturn(List.of());
+
+            // When
+            List<UUID> updated = adminService.updateUserStatuses(List.of(testUserUuid), UserStatus.NORMAL);
+
+            // Then
+            assertTrue(updated.isEmpty());
+            verifyNoInteractions(userCounterService, transactionAwareKafkaPublisher, userStatusEventProducer);
         }
     }
-}
\ No newline at end of file
+}
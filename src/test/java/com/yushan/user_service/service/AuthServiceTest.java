@@ -7,24 +7,33 @@ import com.yushan.user_service.entity.Library;
 import com.yushan.user_service.entity.User;
 import com.yushan.user_service.enums.Gender;
 import com.yushan.user_service.event.UserEventProducer;
+import com.yushan.user_service.event.dto.UserLoggedInEvent;
 import com.yushan.user_service.exception.ValidationException;
 import com.yushan.user_service.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Date;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +42,9 @@ public class AuthServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCounterService userCounterService;
+
     @Mock
     private JwtUtil jwtUtil;
 
@@ -40,7 +52,10 @@ public class AuthServiceTest {
     private UserEventProducer userEventProducer;
 
     @Mock
-    private TransactionAwareKafkaPublisher transactionAwareKafkaPublisher;
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private PasswordHashService passwordHashService = newPasswordHashService();
 
     @InjectMocks
     private AuthService authService;
@@ -51,9 +66,30 @@ public class AuthServiceTest {
     private String userEmail;
     private String userPassword;
 
+    private static PasswordHashService newPasswordHashService() {
+        PasswordHashService service = new PasswordHashService();
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "poolSize", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 8);
+        ReflectionTestUtils.setField(service, "timeoutMs", 5000L);
+        ReflectionTestUtils.setField(service, "retryAfterSeconds", 1L);
+        ReflectionTestUtils.setField(service, "cost", 10);
+        service.init();
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashService.shutdown();
+    }
+
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(authService, "accessTokenExpiration", 3600L);
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
 
         userUuid = UUID.randomUUID();
         userEmail = "test@example.com";
@@ -90,7 +126,7 @@ public class AuthServiceTest {
 
         // Then
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(userCaptor.capture());
+        verify(userRepository).insert(userCaptor.capture());
         User capturedUser = userCaptor.getValue();
 
         assertThat(capturedUser.getEmail()).isEqualTo(registrationDTO.getEmail());
@@ -105,6 +141,7 @@ public class AuthServiceTest {
         assertThat(capturedLibrary.getUserId()).isEqualTo(capturedUser.getUuid());
 
         assertThat(registeredUser).isEqualTo(capturedUser);
+        verify(userCounterService).recordCreated(capturedUser);
     }
 
     @Test
@@ -117,7 +154,7 @@ public class AuthServiceTest {
                 .isInstanceOf(ValidationException.class)
                 .hasMessage("Email was registered");
 
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).insert(any(User.class));
         verify(userRepository, never()).saveLibrary(any(Library.class));
     }
 
@@ -132,9 +169,10 @@ public class AuthServiceTest {
         UserAuthResponseDTO response = authService.registerAndCreateResponse(registrationDTO);
 
         // Then
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).insert(any(User.class));
         verify(userRepository).saveLibrary(any(Library.class));
-        verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
+        verify(userEventProducer).sendUserRegisteredEvent(argThat(event ->
+                event.email().equals(userEmail)));
         verify(jwtUtil).generateAccessToken(any(User.class));
         verify(jwtUtil).generateRefreshToken(any(User.class));
 
@@ -191,8 +229,9 @@ public class AuthServiceTest {
         UserAuthResponseDTO response = authService.loginAndCreateResponse(userEmail, userPassword);
 
         // Then
-        verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
-        verify(userRepository).save(any(User.class));
+        verify(userEventProducer).sendUserLoggedInEvent(any(UserLoggedInEvent.class));
+        verify(userRepository).recordLogin(eq(userUuid), any(Date.class));
+        verify(userRepository, never()).update(any(User.class));
 
         assertThat(response).isNotNull();
         assertThat(response.getUuid()).isEqualTo(userUuid.toString());
@@ -200,6 +239,60 @@ public class AuthServiceTest {
         assertThat(response.getRefreshToken()).isEqualTo("new-refresh-token");
     }
 
+    @Test
+    void loginAndCreateResponse_WrongPassword_NeverOpensTransaction() {
+        // Given
+        when(userRepository.findByEmail(userEmail)).thenReturn(testUser);
+
+        // When & Then
+        assertThatThrownBy(() -> authService.loginAndCreateResponse(userEmail, "wrong-password"))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void loginAndCreateResponse_OutdatedHashCost_RehashesInBackground() {
+        // Given
+        String outdatedHash = BCrypt.hashpw(userPassword, BCrypt.gensalt(4));
+        testUser.setHashPassword(outdatedHash);
+        when(userRepository.findByEmail(userEmail)).thenReturn(testUser);
+        when(userRepository.updatePasswordHash(eq(userUuid), eq(outdatedHash), anyString())).thenReturn(true);
+
+        // When
+        authService.loginAndCreateResponse(userEmail, userPassword);
+
+        // Then
+        ArgumentCaptor<String> newHashCaptor = ArgumentCaptor.forClass(String.class);
+        verify(userRepository, timeout(5000)).updatePasswordHash(eq(userUuid), eq(outdatedHash), newHashCaptor.capture());
+        assertThat(newHashCaptor.getValue()).startsWith("$2a$10$");
+        assertThat(BCrypt.checkpw(userPassword, newHashCaptor.getValue())).isTrue();
+    }
+
+    @Test
+    void loginAndCreateResponse_TransactionFails_DoesNotRehash() {
+        // Given
+        testUser.setHashPassword(BCrypt.hashpw(userPassword, BCrypt.gensalt(4)));
+        when(userRepository.findByEmail(userEmail)).thenReturn(testUser);
+        doThrow(new IllegalStateException("db down")).when(transactionTemplate).executeWithoutResult(any());
+
+        // When & Then
+        assertThatThrownBy(() -> authService.loginAndCreateResponse(userEmail, userPassword))
+                .isInstanceOf(IllegalStateException.class);
+        verify(passwordHashService, never()).rehashInBackground(anyString(), any());
+    }
+
+    @Test
+    void loginAndCreateResponse_CurrentHashCost_DoesNotRehash() {
+        // Given
+        when(userRepository.findByEmail(userEmail)).thenReturn(testUser);
+
+        // When
+        authService.loginAndCreateResponse(userEmail, userPassword);
+
+        // Then
+        verify(userRepository, never()).updatePasswordHash(any(), anyString(), anyString());
+    }
+
     @Test
     void refreshToken_Success() {
         // Given
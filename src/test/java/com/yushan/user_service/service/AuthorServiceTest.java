@@ -23,6 +23,9 @@ class AuthorServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCounterService userCounterService;
+
     @Mock
     private UserService userService;
 
@@ -66,7 +69,7 @@ class AuthorServiceTest {
     @Test
     void upgradeToAuthor_Success() {
         // Given
-        when(userRepository.findByEmail(testEmail)).thenReturn(testUser);
+        when(userRepository.findByEmailForUpdate(testEmail)).thenReturn(testUser);
         when(mailService.verifyEmail(testEmail, testVerificationCode)).thenReturn(true);
         when(userService.getUserProfile(testUser.getUuid())).thenReturn(expectedResponse);
 
@@ -77,40 +80,41 @@ class AuthorServiceTest {
         assertNotNull(result);
         assertEquals(testEmail, result.getEmail());
         assertTrue(result.getIsAuthor());
-        verify(userRepository).save(testUser);
+        verify(userRepository).update(testUser);
+        verify(userCounterService).recordMoved(argThat(before -> !before.isAuthor()), argThat(after -> after.isAuthor()));
     }
 
     @Test
     void upgradeToAuthor_UserNotFound() {
         // Given
-        when(userRepository.findByEmail(testEmail)).thenReturn(null);
+        when(userRepository.findByEmailForUpdate(testEmail)).thenReturn(null);
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, 
             () -> authorService.upgradeToAuthor(testEmail, testVerificationCode));
         
         assertEquals("User not found", exception.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).update(any());
     }
 
     @Test
     void upgradeToAuthor_UserAlreadyAuthor() {
         // Given
         testUser.setIsAuthor(true);
-        when(userRepository.findByEmail(testEmail)).thenReturn(testUser);
+        when(userRepository.findByEmailForUpdate(testEmail)).thenReturn(testUser);
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, 
             () -> authorService.upgradeToAuthor(testEmail, testVerificationCode));
         
         assertEquals("User is already an author", exception.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).update(any());
     }
 
     @Test
     void upgradeToAuthor_InvalidVerificationCode() {
         // Given
-        when(userRepository.findByEmail(testEmail)).thenReturn(testUser);
+        when(userRepository.findByEmailForUpdate(testEmail)).thenReturn(testUser);
         when(mailService.verifyEmail(testEmail, testVerificationCode)).thenReturn(false);
 
         // When & Then
@@ -118,7 +122,7 @@ class AuthorServiceTest {
             () -> authorService.upgradeToAuthor(testEmail, testVerificationCode));
         
         assertEquals("Invalid verification code or code expired", exception.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).update(any());
     }
 
     @Test
@@ -128,7 +132,7 @@ class AuthorServiceTest {
             () -> authorService.upgradeToAuthor("", testVerificationCode));
         
         assertEquals("Email is required", exception.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).update(any());
     }
 
     @Test
@@ -138,6 +142,6 @@ class AuthorServiceTest {
             () -> authorService.upgradeToAuthor(null, testVerificationCode));
         
         assertEquals("Email is required", exception.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).update(any());
     }
 }
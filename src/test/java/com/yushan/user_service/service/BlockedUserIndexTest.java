@@ -0,0 +1,239 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.dao.BlockedUserChangeMapper;
+import com.yushan.user_service.dto.BlockedUsersDeltaDTO;
+import com.yushan.user_service.entity.BlockedUserChange;
+import com.yushan.user_service.entity.UserStatusChange;
+import com.yushan.user_service.enums.UserStatus;
+import com.yushan.user_service.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlockedUserIndexTest {
+
+    private static final long EPOCH = BlockedUserIndex.EPOCH;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BlockedUserChangeMapper blockedUserChangeMapper;
+
+    @InjectMocks
+    private BlockedUserIndex index;
+
+    private UUID suspended;
+
+    // rows the mocked change log returns after the load version
+    private final List<BlockedUserChange> log = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "changeLogSize", 3);
+        ReflectionTestUtils.setField(index, "pollBatchSize", 10);
+        index.init();
+        suspended = UUID.randomUUID();
+        lenient().when(blockedUserChangeMapper.selectMaxVersion()).thenReturn(10L);
+        lenient().when(userRepository.findBlockedUserIds()).thenReturn(List.of(suspended));
+        lenient().when(blockedUserChangeMapper.selectSince(anyLong(), anyInt())).thenAnswer(invocation -> {
+            long since = invocation.getArgument(0);
+            return log.stream().filter(row -> row.getVersion() > since).toList();
+        });
+    }
+
+    private void committed(UUID userId, boolean blocked) {
+        BlockedUserChange row = new BlockedUserChange();
+        row.setVersion(10L + log.size() + 1);
+        row.setUserUuid(userId);
+        row.setBlocked(blocked);
+        log.add(row);
+    }
+
+    private static UserStatusChange change(UUID uuid, UserStatus oldStatus) {
+        UserStatusChange change = new UserStatusChange();
+        change.setUuid(uuid);
+        change.setOldStatus(oldStatus.getCode());
+        return change;
+    }
+
+    @Test
+    void snapshot_LoadsOnceWithUuidOnlyQuery() {
+        assertEquals(List.of(suspended), index.snapshot());
+        index.snapshot();
+
+        verify(userRepository, times(1)).findBlockedUserIds();
+        verify(userRepository, never()).findUsersForAdmin(any(), anyInt());
+    }
+
+    @Test
+    void load_ReadsVersionBeforeSet() {
+        index.snapshot();
+
+        InOrder inOrder = inOrder(blockedUserChangeMapper, userRepository);
+        inOrder.verify(blockedUserChangeMapper).selectMaxVersion();
+        inOrder.verify(userRepository).findBlockedUserIds();
+    }
+
+    @Test
+    void changesSince_VersionZero_ReturnsFullSet() {
+        BlockedUsersDeltaDTO delta = index.changesSince(EPOCH, 0);
+
+        assertTrue(delta.isFull());
+        assertEquals(10, delta.getVersion());
+        assertEquals(List.of(suspended), delta.getBlocked());
+    }
+
+    @Test
+    void changesSince_NoEpoch_VersionZero_ReturnsFullSet() {
+        assertTrue(index.changesSince(null, 0).isFull());
+    }
+
+    @Test
+    void changesSince_CurrentVersion_ReturnsEmptyDelta() {
+        BlockedUsersDeltaDTO delta = index.changesSince(EPOCH, 10);
+
+        assertFalse(delta.isFull());
+        assertEquals(10, delta.getVersion());
+        assertTrue(delta.getBlocked().isEmpty());
+        assertTrue(delta.getUnblocked().isEmpty());
+    }
+
+    @Test
+    void changesSince_BeforeLoadVersion_ReturnsFullSet() {
+        BlockedUsersDeltaDTO delta = index.changesSince(EPOCH, 9);
+
+        assertTrue(delta.isFull());
+        assertEquals(List.of(suspended), delta.getBlocked());
+    }
+
+    @Test
+    void poll_ChangesFromAnyInstance_AreServedAsDelta() {
+        UUID banned = UUID.randomUUID();
+        index.snapshot();
+        committed(banned, true);
+        committed(suspended, false);
+
+        index.poll();
+        BlockedUsersDeltaDTO delta = index.changesSince(EPOCH, 10);
+
+        assertFalse(delta.isFull());
+        assertEquals(12, delta.getVersion());
+        assertEquals(List.of(banned), delta.getBlocked());
+        assertEquals(List.of(suspended), delta.getUnblocked());
+        assertEquals(List.of(banned), index.snapshot());
+    }
+
+    @Test
+    void poll_ChangeAlreadySeenByLoad_IsStillLogged() {
+        // committed after the version was read but before the set was
+        UUID banned = UUID.randomUUID();
+        when(userRepository.findBlockedUserIds()).thenReturn(List.of(suspended, banned));
+        index.snapshot();
+        committed(banned, true);
+
+        index.poll();
+        BlockedUsersDeltaDTO delta = index.changesSince(EPOCH, 10);
+
+        assertEquals(11, delta.getVersion());
+        assertEquals(List.of(banned), delta.getBlocked());
+        assertEquals(2, index.snapshot().size());
+    }
+
+    @Test
+    void changesSince_LastChangePerUserWins() {
+        UUID user = UUID.randomUUID();
+        index.snapshot();
+        committed(user, true);
+        committed(user, false);
+
+        index.poll();
+        BlockedUsersDeltaDTO delta = index.changesSince(EPOCH, 10);
+
+        assertTrue(delta.getBlocked().isEmpty());
+        assertEquals(List.of(user), delta.getUnblocked());
+    }
+
+    @Test
+    void changesSince_OlderThanChangeLog_ReturnsFullSet() {
+        index.snapshot();
+        for (int i = 0; i < 5; i++) {
+            committed(UUID.randomUUID(), true);
+        }
+        index.poll();
+
+        BlockedUsersDeltaDTO delta = index.changesSince(EPOCH, 11);
+
+        assertTrue(delta.isFull());
+        assertEquals(15, delta.getVersion());
+        assertEquals(6, delta.getBlocked().size());
+        assertFalse(index.changesSince(EPOCH, 12).isFull());
+    }
+
+    @Test
+    void changesSince_AheadOfThisInstance_PollsFirst() {
+        UUID banned = UUID.randomUUID();
+        index.snapshot();
+        committed(banned, true);
+
+        BlockedUsersDeltaDTO delta = index.changesSince(EPOCH, 11);
+
+        assertFalse(delta.isFull());
+        assertEquals(11, delta.getVersion());
+        assertTrue(delta.getBlocked().isEmpty());
+    }
+
+    @Test
+    void changesSince_OtherEpoch_ReturnsFullSet() {
+        BlockedUsersDeltaDTO delta = index.changesSince(EPOCH + 1, 10);
+
+        assertTrue(delta.isFull());
+        assertEquals(List.of(suspended), delta.getBlocked());
+    }
+
+    @Test
+    void etag_ChangesWithVersion() {
+        String before = index.etag();
+        committed(UUID.randomUUID(), true);
+
+        index.poll();
+
+        assertNotEquals(before, index.etag());
+    }
+
+    @Test
+    void recordChanges_AppendsOnlyMembershipFlips() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        // suspended is already blocked, so only two rows are appended
+        index.recordChanges(List.of(change(first, UserStatus.NORMAL), change(suspended, UserStatus.SUSPENDED),
+                change(second, UserStatus.NORMAL)), UserStatus.BANNED);
+
+        InOrder inOrder = inOrder(blockedUserChangeMapper);
+        inOrder.verify(blockedUserChangeMapper).lockForAppend();
+        inOrder.verify(blockedUserChangeMapper).insertBatch(List.of(first, second), true);
+    }
+
+    @Test
+    void recordChanges_NoMembershipFlip_WritesNothing() {
+        index.recordChanges(List.of(change(suspended, UserStatus.SUSPENDED)), UserStatus.BANNED);
+
+        verify(blockedUserChangeMapper, never()).lockForAppend();
+        verify(blockedUserChangeMapper, never()).insertBatch(anyList(), anyBoolean());
+    }
+}
@@ -0,0 +1,126 @@
+package com.yushan.user_service.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterReplayServiceTest {
+
+    private static final TopicPartition DLT_PARTITION = new TopicPartition("active.DLT", 0);
+
+    @Mock
+    private ConsumerFactory<String, byte[]> deadLetterConsumerFactory;
+
+    @Mock
+    private KafkaTemplate<String, Object> deadLetterKafkaTemplate;
+
+    @InjectMocks
+    private DeadLetterReplayService service;
+
+    private MockConsumer<String, byte[]> consumer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "replayableTopics", Set.of("active"));
+        ReflectionTestUtils.setField(service, "sendTimeoutMs", 1000L);
+        // stays open after replay() so committed offsets can be checked
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void close() {
+            }
+        };
+        consumer.updatePartitions("active.DLT",
+                List.of(new PartitionInfo("active.DLT", 0, Node.noNode(), new Node[0], new Node[0])));
+        consumer.updateBeginningOffsets(Map.of(DLT_PARTITION, 0L));
+    }
+
+    private void addDeadLetter(long offset, String value) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("traceparent", "00-abc".getBytes(StandardCharsets.UTF_8));
+        headers.add("kafka_dlt-exception-message", "boom".getBytes(StandardCharsets.UTF_8));
+        consumer.schedulePollTask(() -> consumer.addRecord(new ConsumerRecord<>("active.DLT", 0, offset,
+                0L, TimestampType.CREATE_TIME, 0, 0, "key-" + offset,
+                value.getBytes(StandardCharsets.UTF_8), headers, Optional.empty())));
+    }
+
+    @Test
+    void replay_RepublishesWithOriginalHeadersAndCommits() {
+        when(deadLetterConsumerFactory.createConsumer()).thenReturn(consumer);
+        when(deadLetterKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        addDeadLetter(0, "{\"userId\":null}");
+        addDeadLetter(1, "{}");
+
+        int replayed = service.replay("active", 100);
+
+        assertEquals(2, replayed);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(deadLetterKafkaTemplate, times(2)).send(sent.capture());
+        ProducerRecord<String, Object> first = sent.getAllValues().get(0);
+        assertEquals("active", first.topic());
+        assertEquals("key-0", first.key());
+        assertNotNull(first.headers().lastHeader("traceparent"));
+        assertNull(first.headers().lastHeader("kafka_dlt-exception-message"));
+        assertEquals(new OffsetAndMetadata(2), consumer.committed(Set.of(DLT_PARTITION)).get(DLT_PARTITION));
+    }
+
+    @Test
+    void replay_StopsAtMaxRecords() {
+        when(deadLetterConsumerFactory.createConsumer()).thenReturn(consumer);
+        when(deadLetterKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        consumer.schedulePollTask(() -> {
+            for (long offset = 0; offset < 3; offset++) {
+                consumer.addRecord(new ConsumerRecord<>("active.DLT", 0, offset, "key", new byte[]{1}));
+            }
+        });
+
+        assertEquals(2, service.replay("active", 2));
+        assertEquals(new OffsetAndMetadata(2), consumer.committed(Set.of(DLT_PARTITION)).get(DLT_PARTITION));
+    }
+
+    @Test
+    void replay_SendFails_DoesNotCommit() {
+        when(deadLetterConsumerFactory.createConsumer()).thenReturn(consumer);
+        when(deadLetterKafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        addDeadLetter(0, "{}");
+
+        assertThrows(IllegalStateException.class, () -> service.replay("active", 10));
+        assertNull(consumer.committed(Set.of(DLT_PARTITION)).get(DLT_PARTITION));
+    }
+
+    @Test
+    void replay_TopicNotReplayable_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.replay("user.events", 10));
+        verifyNoInteractions(deadLetterConsumerFactory);
+    }
+}
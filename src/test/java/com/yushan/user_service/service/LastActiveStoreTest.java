@@ -0,0 +1,141 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.entity.User;
+import com.yushan.user_service.repository.UserRepository;
+import com.yushan.user_service.util.RedisUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LastActiveStoreTest {
+
+    private static final long MINUTE = 29_000_000L;
+
+    @Mock
+    private RedisUtil redisUtil;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private LastActiveStore store;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(store, "flushBatchSize", 2);
+        ReflectionTestUtils.setField(store, "retentionDays", 30L);
+        store.init();
+    }
+
+    private static User user(UUID id, Date lastActive) {
+        User user = new User();
+        user.setUuid(id);
+        user.setLastActive(lastActive);
+        return user;
+    }
+
+    @Test
+    void record_SendsUserAndEpochMinute() {
+        UUID id = UUID.randomUUID();
+        doReturn(1L).when(redisUtil).execute(any(), anyList(), anyString(), anyString());
+
+        boolean moved = store.record(id, Instant.ofEpochMilli(MINUTE * 60_000L + 59_999L));
+
+        assertTrue(moved);
+        verify(redisUtil).execute(any(), eq(List.of(LastActiveStore.LAST_ACTIVE_KEY, LastActiveStore.DIRTY_KEY)),
+                eq(id.toString()), eq(String.valueOf(MINUTE)));
+    }
+
+    @Test
+    void overlay_TakesLaterOfStoredAndCachedValue() {
+        UUID stale = UUID.randomUUID();
+        UUID fresh = UUID.randomUUID();
+        UUID uncached = UUID.randomUUID();
+        Date stored = new Date(MINUTE * 60_000L);
+        Date newer = new Date((MINUTE + 10) * 60_000L);
+        List<User> users = List.of(user(stale, stored), user(fresh, newer), user(uncached, stored));
+        when(redisUtil.zScores(eq(LastActiveStore.LAST_ACTIVE_KEY), anyCollection()))
+                .thenReturn(Arrays.asList((double) MINUTE + 5, (double) MINUTE + 5, null));
+
+        store.overlay(users);
+
+        assertEquals(new Date((MINUTE + 5) * 60_000L), users.get(0).getLastActive());
+        assertEquals(newer, users.get(1).getLastActive());
+        assertEquals(stored, users.get(2).getLastActive());
+    }
+
+    @Test
+    void overlay_RedisDown_KeepsStoredValues() {
+        Date stored = new Date(MINUTE * 60_000L);
+        List<User> users = List.of(user(UUID.randomUUID(), stored));
+        when(redisUtil.zScores(anyString(), anyCollection())).thenThrow(new RedisConnectionFailureException("down"));
+
+        store.overlay(users);
+
+        assertEquals(stored, users.get(0).getLastActive());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WritesDrainedUsersInOneBatch() {
+        UUID id = UUID.randomUUID();
+        doReturn(List.of(id.toString(), String.valueOf(MINUTE)))
+                .when(redisUtil).execute(any(RedisScript.class), anyList(), eq("2"));
+
+        store.flush();
+
+        verify(userRepository).updateLastActiveBatch(Map.of(id, new Date(MINUTE * 60_000L)));
+        verify(redisUtil).zRemoveRangeByScore(eq(LastActiveStore.LAST_ACTIVE_KEY), eq(Double.NEGATIVE_INFINITY), anyDouble());
+        assertEquals(1.0, meterRegistry.get("last.active.flushed").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_FullBatch_DrainsNextBatchInSameRound() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        doReturn(List.of(a.toString(), String.valueOf(MINUTE), b.toString(), String.valueOf(MINUTE)), List.of())
+                .when(redisUtil).execute(any(RedisScript.class), anyList(), eq("2"));
+
+        store.flush();
+
+        verify(userRepository, times(1)).updateLastActiveBatch(anyMap());
+        verify(redisUtil, times(2)).execute(any(RedisScript.class), anyList(), eq("2"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_DatabaseFails_MarksUsersDirtyAgain() {
+        UUID id = UUID.randomUUID();
+        doReturn(List.of(id.toString(), String.valueOf(MINUTE)))
+                .when(redisUtil).execute(any(RedisScript.class), anyList(), eq("2"));
+        when(userRepository.updateLastActiveBatch(anyMap())).thenThrow(new IllegalStateException("db down"));
+
+        store.flush();
+
+        verify(redisUtil).sAdd(LastActiveStore.DIRTY_KEY, List.of(id.toString()));
+        assertEquals(1.0, meterRegistry.get("last.active.flush.failures").counter().count());
+    }
+}
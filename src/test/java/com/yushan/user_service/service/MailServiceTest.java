@@ -1,11 +1,14 @@
 package com.yushan.user_service.service;
 
+import com.yushan.user_service.enums.RateLimitPolicy;
+import com.yushan.user_service.exception.RateLimitExceededException;
 import com.yushan.user_service.util.MailUtil;
 import com.yushan.user_service.util.RedisUtil;
 import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,6 +27,9 @@ public class MailServiceTest {
     @Mock
     private RedisUtil redisUtil;
 
+    @Mock
+    private RateLimitService rateLimitService;
+
     @InjectMocks
     private MailService mailService;
 
@@ -41,7 +47,6 @@ public class MailServiceTest {
     @Test
     void sendVerificationCode_NormalCase_ShouldSendEmailSuccessfully() throws MessagingException, UnsupportedEncodingException {
         // Given
-        when(redisUtil.get("email_send_time:" + TEST_EMAIL)).thenReturn(null); // send firstly
         doNothing().when(redisUtil).set(anyString(), anyString(), anyLong(), any());
         doNothing().when(mailUtil).sendEmail(anyString(), anyString(), anyString());
 
@@ -49,29 +54,29 @@ public class MailServiceTest {
         assertDoesNotThrow(() -> mailService.sendVerificationCode(TEST_EMAIL));
 
         // Verify
+        verify(rateLimitService).acquire(RateLimitPolicy.VERIFICATION_EMAIL, TEST_EMAIL);
         verify(redisUtil).set(eq(TEST_EMAIL), anyString(), eq(5L), any());
-        verify(redisUtil).set(eq("email_send_time:" + TEST_EMAIL), anyString(), eq(60000L), any());
         verify(mailUtil).sendEmail(eq(TEST_EMAIL), eq(SUBJECT), anyString());
     }
 
     /**
      * rate limit
-     * Expected: throw RuntimeException
+     * Expected: throw RateLimitExceededException, nothing stored or sent
      */
     @Test
     void sendVerificationCode_RateLimitExceeded_ShouldThrowException() throws MessagingException, UnsupportedEncodingException {
         // Given
-        long currentTime = System.currentTimeMillis();
-        long lastSendTime = currentTime - 30000; // sent before 30s
-        when(redisUtil.get("email_send_time:" + TEST_EMAIL)).thenReturn(String.valueOf(lastSendTime));
+        doThrow(new RateLimitExceededException("email sends too often, please try again after 30 second(s)", 30))
+                .when(rateLimitService).acquire(RateLimitPolicy.VERIFICATION_EMAIL, TEST_EMAIL);
 
         // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
                 () -> mailService.sendVerificationCode(TEST_EMAIL));
 
         // Verify
         assertTrue(exception.getMessage().contains("email sends too often"));
-        verify(redisUtil, never()).set(anyString(), anyString(), anyInt(), any());
+        assertEquals(30, exception.getRetryAfterSeconds());
+        verify(redisUtil, never()).set(anyString(), anyString(), anyLong(), any());
         verify(mailUtil, never()).sendEmail(anyString(), anyString(), anyString());
     }
 
@@ -82,7 +87,6 @@ public class MailServiceTest {
     @Test
     void sendVerificationCode_EmailSendFailed_ShouldThrowException() throws MessagingException, UnsupportedEncodingException {
         // Given
-        when(redisUtil.get("email_send_time:" + TEST_EMAIL)).thenReturn(null);
         doNothing().when(redisUtil).set(anyString(), anyString(), anyLong(), any());
         doThrow(new MessagingException("Failed to send email")).when(mailUtil).sendEmail(anyString(), anyString(), anyString());
 
@@ -93,72 +97,24 @@ public class MailServiceTest {
         // Verify
         assertTrue(exception.getMessage().contains("failed to send verification email"));
         verify(redisUtil).set(eq(TEST_EMAIL), anyString(), eq(5L), any());
-        // Email sent failed should not set email_send_time
-        verify(redisUtil, never()).set(eq("email_send_time:" + TEST_EMAIL), anyString(), anyLong(), any());    }
-
-    /**
-     * send email
-     */
-    @Test
-    void checkEmailRateLimit_FirstTimeSend_ShouldNotThrowException() {
-        // Given
-        when(redisUtil.get("email_send_time:" + TEST_EMAIL)).thenReturn(null);
-
-        // When & Then
-        assertDoesNotThrow(() -> mailService.sendVerificationCode(TEST_EMAIL));
-    }
-
-    /**
-     * send time < 60s
-     * Expected: throw RuntimeException
-     */
-    @Test
-    void checkEmailRateLimit_WithinLimitTime_ShouldThrowException() {
-        // Given
-        long currentTime = System.currentTimeMillis();
-        long lastSendTime = currentTime - 30000; // sent before 30s
-        when(redisUtil.get("email_send_time:" + TEST_EMAIL)).thenReturn(String.valueOf(lastSendTime));
-
-        // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> mailService.sendVerificationCode(TEST_EMAIL));
-
-        // Verify
-        assertTrue(exception.getMessage().contains("email sends too often"));
     }
 
     /**
-     * send time > 60s
+     * rate limit is checked before the code is generated
      */
     @Test
-    void checkEmailRateLimit_ExceedLimitTime_ShouldNotThrowException() throws MessagingException, UnsupportedEncodingException {
+    void sendVerificationCode_ShouldAcquireRateLimitBeforeStoringCode() throws MessagingException, UnsupportedEncodingException {
         // Given
-        long currentTime = System.currentTimeMillis();
-        long lastSendTime = currentTime - 70000; // sent before 70s
-        when(redisUtil.get("email_send_time:" + TEST_EMAIL)).thenReturn(String.valueOf(lastSendTime));
-        doNothing().when(redisUtil).set(anyString(), anyString(), anyLong(), any());
-        doNothing().when(mailUtil).sendEmail(anyString(), anyString(), anyString());
-
-        // When & Then
-        assertDoesNotThrow(() -> mailService.sendVerificationCode(TEST_EMAIL));
-    }
-
-    /**
-     * record send time
-     * Expected: RedisUtil.set works
-     */
-    @Test
-    void recordEmailSendTime_NormalCase_ShouldCallRedisSet() throws MessagingException, UnsupportedEncodingException {
-        // Given
-        when(redisUtil.get("email_send_time:" + TEST_EMAIL)).thenReturn(null);
-        doNothing().when(redisUtil).set(anyString(), anyString(), anyLong(), any());
         doNothing().when(mailUtil).sendEmail(anyString(), anyString(), anyString());
 
         // When
         mailService.sendVerificationCode(TEST_EMAIL);
 
         // Verify
-        verify(redisUtil).set(eq("email_send_time:" + TEST_EMAIL), anyString(), eq(60000L), any());
+        InOrder inOrder = inOrder(rateLimitService, redisUtil, mailUtil);
+        inOrder.verify(rateLimitService).acquire(RateLimitPolicy.VERIFICATION_EMAIL, TEST_EMAIL);
+        inOrder.verify(redisUtil).set(eq(TEST_EMAIL), anyString(), eq(5L), any());
+        inOrder.verify(mailUtil).sendEmail(eq(TEST_EMAIL), eq(SUBJECT), anyString());
     }
 
     /**
@@ -0,0 +1,157 @@
+package com.yushan.user_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.dao.OutboxMapper;
+import com.yushan.user_service.entity.OutboxMessage;
+import com.yushan.user_service.event.dto.UserStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxMapper outboxMapper;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(relay, "maxBatchesPerRound", 3);
+        relay.init();
+        lenient().when(outboxMapper.tryLockRelay(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    private OutboxMessage message(long id, UserStatusChangedEvent event) throws Exception {
+        OutboxMessage message = new OutboxMessage("user-status-events", event.getUserId(),
+                UserStatusChangedEvent.class.getName(), objectMapper.writeValueAsString(event));
+        message.setId(id);
+        return message;
+    }
+
+    @Test
+    void relay_SendsOriginalPayloadsAndDeletesThem() throws Exception {
+        UserStatusChangedEvent event = new UserStatusChangedEvent("user-1", "NORMAL", "BANNED");
+        OutboxMessage queued = message(7L, event);
+        when(outboxMapper.selectBatchForUpdate(2)).thenReturn(List.of(queued));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(kafkaTemplate).send("user-status-events", "user-1", event);
+        verify(outboxMapper).deleteByIds(List.of(7L));
+        assertEquals(1.0, meterRegistry.get("outbox.relay.sent").counter().count());
+    }
+
+    @Test
+    void relay_FullBatch_DrainsNextBatchInSameRound() throws Exception {
+        UserStatusChangedEvent event = new UserStatusChangedEvent("user-1", "NORMAL", "BANNED");
+        List<OutboxMessage> first = List.of(message(1L, event), message(2L, event));
+        List<OutboxMessage> second = List.of(message(3L, event));
+        when(outboxMapper.selectBatchForUpdate(2)).thenReturn(first).thenReturn(second);
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outboxMapper).deleteByIds(List.of(1L, 2L));
+        verify(outboxMapper).deleteByIds(List.of(3L));
+        verify(outboxMapper, times(2)).selectBatchForUpdate(2);
+    }
+
+    @Test
+    void relay_LockHeldByOtherInstance_SendsNothing() {
+        when(outboxMapper.tryLockRelay(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(false);
+
+        relay.relay();
+
+        verify(outboxMapper, never()).selectBatchForUpdate(anyInt());
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+    }
+
+    @Test
+    void relay_Backlog_StopsAfterMaxBatchesPerRound() throws Exception {
+        UserStatusChangedEvent event = new UserStatusChangedEvent("user-1", "NORMAL", "BANNED");
+        when(outboxMapper.selectBatchForUpdate(2)).thenAnswer(invocation -> List.of(message(1L, event), message(2L, event)));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outboxMapper, times(3)).selectBatchForUpdate(2);
+    }
+
+    @Test
+    void relay_SendsBatchInIdOrder() throws Exception {
+        UserStatusChangedEvent banned = new UserStatusChangedEvent("user-1", "NORMAL", "BANNED");
+        UserStatusChangedEvent restored = new UserStatusChangedEvent("user-1", "BANNED", "NORMAL");
+        List<OutboxMessage> batch = List.of(message(1L, banned), message(2L, restored));
+        when(outboxMapper.selectBatchForUpdate(2)).thenReturn(batch);
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        InOrder inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send("user-status-events", "user-1", banned);
+        inOrder.verify(kafkaTemplate).send("user-status-events", "user-1", restored);
+    }
+
+    @Test
+    void relay_SendFails_KeepsMessages() throws Exception {
+        UserStatusChangedEvent event = new UserStatusChangedEvent("user-1", "NORMAL", "BANNED");
+        OutboxMessage queued = message(7L, event);
+        when(outboxMapper.selectBatchForUpdate(2)).thenReturn(List.of(queued));
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.relay();
+
+        verify(outboxMapper, never()).deleteByIds(any());
+        assertEquals(1.0, meterRegistry.get("outbox.relay.failures").counter().count());
+    }
+
+    @Test
+    void relay_UnknownPayloadType_IsDroppedNotRetriedForever() {
+        OutboxMessage poison = new OutboxMessage("user-status-events", "user-1", "java.lang.ProcessBuilder", "{}");
+        poison.setId(9L);
+        when(outboxMapper.selectBatchForUpdate(2)).thenReturn(List.of(poison));
+
+        relay.relay();
+
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+        verify(outboxMapper).deleteByIds(List.of(9L));
+    }
+}
@@ -0,0 +1,72 @@
+package com.yushan.user_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.user_service.dao.OutboxMapper;
+import com.yushan.user_service.entity.OutboxMessage;
+import com.yushan.user_service.event.dto.UserStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxMapper outboxMapper;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private OutboxService outboxService;
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxMessage> insertedMessages() {
+        ArgumentCaptor<List<OutboxMessage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxMapper).insertBatch(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void enqueue_StoresTopicKeyTypeAndJson() throws Exception {
+        UserStatusChangedEvent event = new UserStatusChangedEvent("user-1", "NORMAL", "BANNED");
+
+        outboxService.enqueue("user-status-events", "user-1", event);
+
+        OutboxMessage message = insertedMessages().get(0);
+        assertEquals("user-status-events", message.getTopic());
+        assertEquals("user-1", message.getMessageKey());
+        assertEquals(UserStatusChangedEvent.class.getName(), message.getPayloadType());
+        assertEquals(event, objectMapper.readValue(message.getPayload(), UserStatusChangedEvent.class));
+    }
+
+    @Test
+    void enqueueAll_InsertsAllMessagesInOneStatement() {
+        List<UserStatusChangedEvent> events = List.of(
+                new UserStatusChangedEvent("user-1", "NORMAL", "BANNED"),
+                new UserStatusChangedEvent("user-2", "SUSPENDED", "BANNED"));
+
+        outboxService.enqueueAll("user-status-events", events, UserStatusChangedEvent::getUserId);
+
+        List<OutboxMessage> messages = insertedMessages();
+        assertEquals(2, messages.size());
+        assertEquals("user-1", messages.get(0).getMessageKey());
+        assertEquals("user-2", messages.get(1).getMessageKey());
+    }
+
+    @Test
+    void enqueueAll_Empty_DoesNothing() {
+        outboxService.enqueueAll("user-status-events", List.<UserStatusChangedEvent>of(), UserStatusChangedEvent::getUserId);
+
+        verifyNoInteractions(outboxMapper);
+    }
+}
@@ -0,0 +1,217 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashServiceTest {
+
+    private PasswordHashService passwordHashService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashService = new PasswordHashService();
+        ReflectionTestUtils.setField(passwordHashService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(passwordHashService, "poolSize", 1);
+        ReflectionTestUtils.setField(passwordHashService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(passwordHashService, "timeoutMs", 5000L);
+        ReflectionTestUtils.setField(passwordHashService, "retryAfterSeconds", 3L);
+        ReflectionTestUtils.setField(passwordHashService, "cost", 10);
+        passwordHashService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashService.shutdown();
+    }
+
+    /**
+     * hash then verify
+     * Expected: matches only the original password
+     */
+    @Test
+    void hash_ThenMatches_ShouldVerify() {
+        // When
+        String hashed = passwordHashService.hash("password123");
+
+        // Then
+        assertTrue(BCrypt.checkpw("password123", hashed));
+        assertTrue(passwordHashService.matches("password123", hashed));
+        assertFalse(passwordHashService.matches("wrong", hashed));
+        assertEquals(1, meterRegistry.get("password.hash.duration").tag("operation", "hash").timer().count());
+        assertEquals(2, meterRegistry.get("password.hash.duration").tag("operation", "verify").timer().count());
+    }
+
+    /**
+     * missing password or hash
+     * Expected: false without touching the pool
+     */
+    @Test
+    void matches_NullInput_ShouldReturnFalse() {
+        assertFalse(passwordHashService.matches(null, "hash"));
+        assertFalse(passwordHashService.matches("password", null));
+    }
+
+    /**
+     * worker busy and queue full
+     * Expected: shed with ServiceOverloadedException carrying Retry-After
+     */
+    @Test
+    void matches_QueueFull_ShouldRejectFast() throws Exception {
+        // Given - occupy the only worker and the only queue slot
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordHashService, "executor");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> awaitQuietly(release));
+
+        // When & Then
+        try {
+            ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                    () -> passwordHashService.matches("password", BCrypt.hashpw("password", BCrypt.gensalt(4))));
+            assertEquals(3, exception.getRetryAfterSeconds());
+            assertEquals(1.0, meterRegistry.get("password.hash.rejected").counter().count());
+            assertEquals(1.0, meterRegistry.get("password.hash.queue.depth").gauge().value());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * concurrent callers within capacity
+     * Expected: all complete
+     */
+    @Test
+    void hash_ConcurrentWithinCapacity_ShouldComplete() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            var first = callers.submit(() -> passwordHashService.matches("a", BCrypt.hashpw("a", BCrypt.gensalt(4))));
+            var second = callers.submit(() -> passwordHashService.matches("b", BCrypt.hashpw("b", BCrypt.gensalt(4))));
+            assertTrue(first.get(10, TimeUnit.SECONDS));
+            assertTrue(second.get(10, TimeUnit.SECONDS));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    /**
+     * parse stored hashes
+     * Expected: algorithm and cost extracted, unknown formats rejected
+     */
+    @Test
+    void parse_ShouldExtractAlgorithmAndCost() {
+        assertEquals(new PasswordHashService.HashParams("2a", 4), passwordHashService.parse(BCrypt.hashpw("x", BCrypt.gensalt(4))));
+        assertEquals(new PasswordHashService.HashParams("2a", 10), passwordHashService.parse(passwordHashService.hash("x")));
+        assertNull(passwordHashService.parse("plain-text"));
+        assertNull(passwordHashService.parse(null));
+    }
+
+    /**
+     * stored cost differs from target
+     * Expected: needsRehash only for outdated or foreign parameters
+     */
+    @Test
+    void needsRehash_ShouldCompareWithTargetParams() {
+        assertTrue(passwordHashService.needsRehash(BCrypt.hashpw("x", BCrypt.gensalt(4))));
+        assertTrue(passwordHashService.needsRehash(BCrypt.hashpw("x", BCrypt.gensalt(10)).replaceFirst("^\\$2a", "\\$2b")));
+        assertFalse(passwordHashService.needsRehash(BCrypt.hashpw("x", BCrypt.gensalt(10))));
+        assertFalse(passwordHashService.needsRehash("not-a-bcrypt-hash"));
+    }
+
+    /**
+     * background rehash
+     * Expected: callback receives a hash with the target cost
+     */
+    @Test
+    void rehashInBackground_ShouldDeliverNewHash() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        String[] result = new String[1];
+
+        passwordHashService.rehashInBackground("password", newHash -> {
+            result[0] = newHash;
+            done.countDown();
+        });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(10, passwordHashService.parse(result[0]).cost());
+        assertTrue(BCrypt.checkpw("password", result[0]));
+    }
+
+    /**
+     * background rehash while the verification pool is busy
+     * Expected: runs on its own pool, the busy verification worker does not delay it
+     */
+    @Test
+    void rehashInBackground_ShouldNotUseVerificationPool() throws Exception {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordHashService, "executor");
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CountDownLatch done = new CountDownLatch(1);
+        String[] threadName = new String[1];
+
+        try {
+            passwordHashService.rehashInBackground("password", newHash -> {
+                threadName[0] = Thread.currentThread().getName();
+                done.countDown();
+            });
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertTrue(threadName[0].startsWith("password-rehash-"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * startup calibration with a tiny target
+     * Expected: cost never drops below the BCrypt default
+     */
+    @Test
+    void init_WithTargetMillis_ShouldCalibrateWithinBounds() {
+        PasswordHashService calibrated = new PasswordHashService();
+        ReflectionTestUtils.setField(calibrated, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(calibrated, "poolSize", 1);
+        ReflectionTestUtils.setField(calibrated, "queueCapacity", 1);
+        ReflectionTestUtils.setField(calibrated, "cost", 10);
+        ReflectionTestUtils.setField(calibrated, "targetMillis", 1L);
+        try {
+            calibrated.init();
+            assertEquals(10, calibrated.targetParams().cost());
+        } finally {
+            calibrated.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.enums.RateLimitPolicy;
+import com.yushan.user_service.exception.RateLimitExceededException;
+import com.yushan.user_service.util.RedisUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitServiceTest {
+
+    @Mock
+    private RedisUtil redisUtil;
+
+    @InjectMocks
+    private RateLimitService rateLimitService;
+
+    private static final String TEST_EMAIL = "Test@Example.com";
+
+    /**
+     * under the limit
+     * Expected: admitted, one script call on the normalized key
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void acquire_UnderLimit_ShouldPass() {
+        // Given
+        when(redisUtil.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        // When & Then
+        assertDoesNotThrow(() -> rateLimitService.acquire(RateLimitPolicy.LOGIN_EMAIL_IP, TEST_EMAIL + "|203.0.113.7"));
+
+        // Verify
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(redisUtil).execute(any(RedisScript.class), keys.capture(), any(Object[].class));
+        assertEquals(List.of("rate_limit:login:email_ip:test@example.com|203.0.113.7"), keys.getValue());
+    }
+
+    /**
+     * over the limit
+     * Expected: throw RateLimitExceededException with retry-after rounded up to seconds
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void acquire_OverLimit_ShouldThrowWithRetryAfter() {
+        // Given
+        when(redisUtil.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(29_500L);
+
+        // When & Then
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> rateLimitService.acquire(RateLimitPolicy.VERIFICATION_EMAIL, TEST_EMAIL));
+
+        // Verify
+        assertEquals(30, exception.getRetryAfterSeconds());
+        assertTrue(exception.getMessage().contains("email sends too often"));
+    }
+
+    /**
+     * caller already blocked
+     * Expected: rejected locally without another Redis round trip
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void acquire_AlreadyBlocked_ShouldRejectWithoutRedis() {
+        // Given
+        when(redisUtil.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(60_000L);
+        assertThrows(RateLimitExceededException.class,
+                () -> rateLimitService.acquire(RateLimitPolicy.LOGIN_IP, "203.0.113.7"));
+
+        // When & Then
+        assertThrows(RateLimitExceededException.class,
+                () -> rateLimitService.acquire(RateLimitPolicy.LOGIN_IP, "203.0.113.7"));
+
+        // Verify
+        verify(redisUtil, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    /**
+     * Redis unavailable
+     * Expected: fail open
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void acquire_RedisUnavailable_ShouldFailOpen() {
+        // Given
+        when(redisUtil.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        // When & Then
+        assertDoesNotThrow(() -> rateLimitService.acquire(RateLimitPolicy.REGISTER_IP, "203.0.113.7"));
+    }
+
+    /**
+     * blank identifier
+     * Expected: not limited, Redis untouched
+     */
+    @Test
+    void acquire_BlankIdentifier_ShouldSkip() {
+        // When & Then
+        assertDoesNotThrow(() -> rateLimitService.acquire(RateLimitPolicy.LOGIN_EMAIL_IP, " "));
+        assertDoesNotThrow(() -> rateLimitService.acquire(RateLimitPolicy.LOGIN_EMAIL_IP, null));
+
+        // Verify
+        verifyNoInteractions(redisUtil);
+    }
+}
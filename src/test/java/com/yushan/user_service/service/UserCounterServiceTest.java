@@ -0,0 +1,108 @@
+package com.yushan.user_service.service;
+
+import com.yushan.user_service.dao.UserCounterMapper;
+import com.yushan.user_service.dto.AdminUserFilterDTO;
+import com.yushan.user_service.entity.User;
+import com.yushan.user_service.enums.UserStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCounterServiceTest {
+
+    @Mock
+    private UserCounterMapper userCounterMapper;
+
+    @InjectMocks
+    private UserCounterService userCounterService;
+
+    @Test
+    void bucketOf_NullFieldsDefaultToNormalNonAuthorNonAdmin() {
+        User user = new User();
+
+        assertEquals(new UserCounterService.Bucket(UserStatus.NORMAL.getCode(), false, false),
+                UserCounterService.Bucket.of(user));
+    }
+
+    @Test
+    void recordCreated_IncrementsUsersBucket() {
+        User user = new User();
+        user.setStatus(UserStatus.NORMAL.getCode());
+        user.setIsAuthor(true);
+        user.setIsAdmin(false);
+
+        userCounterService.recordCreated(user);
+
+        verify(userCounterMapper).increment(UserStatus.NORMAL.getCode(), true, false, 1);
+    }
+
+    @Test
+    void recordMoved_SameBucket_DoesNothing() {
+        UserCounterService.Bucket bucket = new UserCounterService.Bucket(1, false, false);
+
+        userCounterService.recordMoved(bucket, new UserCounterService.Bucket(1, false, false));
+
+        verifyNoInteractions(userCounterMapper);
+    }
+
+    @Test
+    void recordMoved_UpdatesRowsInLockOrder() {
+        UserCounterService.Bucket normal = new UserCounterService.Bucket(0, false, false);
+        UserCounterService.Bucket banned = new UserCounterService.Bucket(2, false, false);
+
+        userCounterService.recordMoved(banned, normal);
+
+        // the lower bucket is always updated first, whichever direction the user moves
+        InOrder inOrder = inOrder(userCounterMapper);
+        inOrder.verify(userCounterMapper).increment(0, false, false, 1);
+        inOrder.verify(userCounterMapper).increment(2, false, false, -1);
+    }
+
+    @Test
+    void recordStatusChanges_OneUpdatePerBucket() {
+        UserCounterService.Bucket normal = new UserCounterService.Bucket(0, false, false);
+        UserCounterService.Bucket author = new UserCounterService.Bucket(0, true, false);
+        UserCounterService.Bucket banned = new UserCounterService.Bucket(2, false, false);
+
+        userCounterService.recordStatusChanges(List.of(normal, normal, author, banned), UserStatus.BANNED);
+
+        // the already banned user nets out to zero for its own bucket
+        InOrder inOrder = inOrder(userCounterMapper);
+        inOrder.verify(userCounterMapper).increment(0, false, false, -2);
+        inOrder.verify(userCounterMapper).increment(0, true, false, -1);
+        inOrder.verify(userCounterMapper).increment(2, false, false, 2);
+        inOrder.verify(userCounterMapper).increment(2, true, false, 1);
+        verifyNoMoreInteractions(userCounterMapper);
+    }
+
+    @Test
+    void count_SumsCounterRowsForFilter() {
+        AdminUserFilterDTO filter = new AdminUserFilterDTO();
+        filter.setStatus(UserStatus.BANNED);
+        when(userCounterMapper.sumForFilter(filter)).thenReturn(42L);
+
+        assertEquals(42L, userCounterService.count(filter));
+    }
+
+    @Test
+    void reconcile_RecomputesAllRows() {
+        when(userCounterMapper.reconcile()).thenReturn(12);
+
+        userCounterService.reconcile();
+
+        InOrder inOrder = inOrder(userCounterMapper);
+        inOrder.verify(userCounterMapper).lockForReconcile();
+        inOrder.verify(userCounterMapper).reconcile();
+        verify(userCounterMapper, never()).increment(anyInt(), anyBoolean(), anyBoolean(), anyLong());
+    }
+}
@@ -11,7 +11,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.data.redis.RedisConnectionFailureException;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -23,12 +27,14 @@ public class UserServiceTest {
 
     private UserRepository userRepository;
     private MailService mailService;
+    private LastActiveStore lastActiveStore;
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         userRepository = Mockito.mock(UserRepository.class);
         mailService = Mockito.mock(MailService.class);
+        lastActiveStore = Mockito.mock(LastActiveStore.class);
         userService = new UserService();
 
         // Inject mock mapper via reflection (simple without Spring context)
@@ -40,6 +46,10 @@ public class UserServiceTest {
             java.lang.reflect.Field f2 = UserService.class.getDeclaredField("mailService");
             f2.setAccessible(true);
             f2.set(userService, mailService);
+
+            java.lang.reflect.Field f3 = UserService.class.getDeclaredField("lastActiveStore");
+            f3.setAccessible(true);
+            f3.set(userService, lastActiveStore);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -93,7 +103,7 @@ public class UserServiceTest {
 
         // verify repository called with save
         ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(captor.capture());
+        verify(userRepository).update(captor.capture());
         User updatedArg = captor.getValue();
         assertEquals(id, updatedArg.getUuid());
         assertEquals("newname", updatedArg.getUsername());
@@ -185,7 +195,7 @@ public class UserServiceTest {
         UserProfileUpdateResponseDTO dto = userService.updateUserProfileSelective(id, req);
 
         ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(captor.capture());
+        verify(userRepository).update(captor.capture());
         assertEquals("new@example.com", captor.getValue().getEmail());
         assertEquals("new@example.com", dto.getProfile().getEmail());
         assertTrue(dto.isEmailChanged());
@@ -300,6 +310,7 @@ public class UserServiceTest {
         assertEquals(id2.toString(), result.get(1).getUuid());
 
         verify(userRepository).findByUuids(userIds);
+        verify(lastActiveStore).overlay(userList);
     }
 
     @Test
@@ -343,6 +354,39 @@ public class UserServiceTest {
         assertFalse(profile.getIsAdmin());  // Should be false for normal user
     }
 
-}
+    @Test
+    void updateLastActiveTime_recordsInStore_withoutDatabaseWrite() {
+        UUID id = UUID.randomUUID();
+        LocalDateTime lastActive = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+        when(lastActiveStore.record(eq(id), any(Instant.class))).thenReturn(true);
+
+        userService.updateLastActiveTime(id, lastActive);
 
+        verify(lastActiveStore).record(id, lastActive.atZone(ZoneId.systemDefault()).toInstant());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void updateLastActiveTime_storeUnavailable_usesSingleConditionalUpdate() {
+        UUID id = UUID.randomUUID();
+        LocalDateTime lastActive = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+        when(lastActiveStore.record(eq(id), any(Instant.class)))
+                .thenThrow(new RedisConnectionFailureException("redis down"));
+        when(userRepository.updateLastActive(eq(id), any(Date.class))).thenReturn(true);
 
+        userService.updateLastActiveTime(id, lastActive);
+
+        Date expected = Date.from(lastActive.atZone(ZoneId.systemDefault()).toInstant());
+        verify(userRepository).updateLastActive(id, expected);
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).update(any());
+    }
+
+    @Test
+    void updateLastActiveTime_nullTimestamp_doesNothing() {
+        userService.updateLastActiveTime(UUID.randomUUID(), null);
+
+        verifyNoInteractions(userRepository, lastActiveStore);
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.yushan.user_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedExecutorTest {
+
+    @Test
+    void submit_SameKey_RunsInSubmissionOrder() {
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 4, 100)) {
+            CompletableFuture<?>[] futures = new CompletableFuture[50];
+            for (int i = 0; i < 50; i++) {
+                int value = i;
+                futures[i] = executor.submit("user", () -> seen.add(value));
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, seen.get(i));
+        }
+    }
+
+    @Test
+    void submit_FailingTask_CompletesExceptionally() {
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 1, 1)) {
+            CompletableFuture<Void> future = executor.submit("user", () -> {
+                throw new IllegalStateException("boom");
+            });
+
+            assertThrows(Exception.class, future::join);
+        }
+    }
+
+    @Test
+    void submit_FullLane_BlocksUntilThereIsRoom() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean thirdQueued = new AtomicBoolean();
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 1, 1)) {
+            executor.submit("user", () -> await(release));
+            // waits in the queue
+            executor.submit("user", () -> { });
+
+            Thread producer = new Thread(() -> {
+                executor.submit("user", () -> { });
+                thirdQueued.set(true);
+            });
+            producer.start();
+            producer.join(200);
+            assertFalse(thirdQueued.get());
+
+            release.countDown();
+            producer.join(5000);
+            assertTrue(thirdQueued.get());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.data.redis.core.ZSetOperations;
@@ -243,6 +244,27 @@ public class RedisUtilTest {
         assertEquals(99.5, redisUtil.zScore("zkey", "member"));
     }
 
+    @Test
+    void testZScores() {
+        when(zSetOperations.score("zkey", "a", "b")).thenReturn(Arrays.asList(1.0, null));
+        assertEquals(Arrays.asList(1.0, null), redisUtil.zScores("zkey", Arrays.asList("a", "b")));
+    }
+
+    @Test
+    void testZRemoveRangeByScore() {
+        when(zSetOperations.removeRangeByScore("zkey", Double.NEGATIVE_INFINITY, 10.0)).thenReturn(3L);
+        assertEquals(3L, redisUtil.zRemoveRangeByScore("zkey", Double.NEGATIVE_INFINITY, 10.0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSAdd() {
+        SetOperations<String, String> setOperations = mock(SetOperations.class);
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.add("skey", "a", "b")).thenReturn(2L);
+        assertEquals(2L, redisUtil.sAdd("skey", Arrays.asList("a", "b")));
+    }
+
     @Test
     void testKeys() {
         Set<String> expected = new HashSet<>(Arrays.asList("key1", "key2"));
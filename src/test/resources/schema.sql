@@ -16,6 +16,13 @@ CREATE TABLE IF NOT EXISTS users (
     is_admin BOOLEAN NOT NULL DEFAULT FALSE,
     create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- superseded by user_activity, dropped in a later release (see V10)
+    last_login TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_active TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS user_activity (
+    uuid VARCHAR(36) PRIMARY KEY REFERENCES users(uuid) ON DELETE CASCADE,
     last_login TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     last_active TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
@@ -35,4 +42,32 @@ CREATE TABLE IF NOT EXISTS novel_library (
     progress INTEGER,
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
\ No newline at end of file
+);
+CREATE TABLE IF NOT EXISTS user_counters (
+    status INTEGER NOT NULL,
+    is_author BOOLEAN NOT NULL,
+    is_admin BOOLEAN NOT NULL,
+    user_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (status, is_author, is_admin)
+);
+
+MERGE INTO user_counters (status, is_author, is_admin, user_count) KEY (status, is_author, is_admin) VALUES
+    (0, FALSE, FALSE, 0), (0, TRUE, FALSE, 0), (0, FALSE, TRUE, 0), (0, TRUE, TRUE, 0),
+    (1, FALSE, FALSE, 0), (1, TRUE, FALSE, 0), (1, FALSE, TRUE, 0), (1, TRUE, TRUE, 0),
+    (2, FALSE, FALSE, 0), (2, TRUE, FALSE, 0), (2, FALSE, TRUE, 0), (2, TRUE, TRUE, 0);
+
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255),
+    payload_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS blocked_user_changes (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_uuid VARCHAR(36) NOT NULL,
+    blocked BOOLEAN NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);